@@ -0,0 +1,30 @@
+package edu.montana.csci.csci468.benchmark;
+
+import edu.montana.csci.csci468.util.WorkloadGenerator;
+
+// Benchmark scripts of increasing size, all with the same shape
+public class Corpus {
+
+    public static String script(String size) {
+        switch (size) {
+            case "small":
+                return workload(1);
+            case "medium":
+                return workload(25);
+            case "large":
+                return workload(500);
+            default:
+                throw new IllegalArgumentException("Unknown corpus size: " + size);
+        }
+    }
+
+    private static String workload(int functionCount) {
+        return new WorkloadGenerator()
+                .functionCount(functionCount)
+                .nestingDepth(3)
+                .listSize(10)
+                .loopTrips(6)
+                .recursionDepth(10)
+                .generate();
+    }
+}
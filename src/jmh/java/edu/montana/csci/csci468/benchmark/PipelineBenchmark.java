@@ -0,0 +1,84 @@
+package edu.montana.csci.csci468.benchmark;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// One benchmark per stage of the pipeline, run against each corpus size
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PipelineBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private String source;
+
+    @Setup(Level.Trial)
+    public void loadCorpus() {
+        source = Corpus.script(size);
+    }
+
+    // parsed once, the backends compile it into new programs and evaluate prints elsewhere, so
+    // its output doesn't grow between invocations
+    @State(Scope.Thread)
+    public static class Verified {
+        CatScriptProgram program;
+
+        @Setup(Level.Trial)
+        public void parseProgram(PipelineBenchmark corpus) {
+            program = new CatScriptParser().parse(corpus.source);
+            program.verify();
+        }
+    }
+
+    @Benchmark
+    public TokenList tokenize() {
+        return new CatScriptTokenizer(source).getTokens();
+    }
+
+    @Benchmark
+    public CatScriptProgram parse() {
+        return new CatScriptParser().parse(source);
+    }
+
+    @Benchmark
+    public String evaluate(Verified verified) {
+        CatScriptProgram output = new CatScriptProgram();
+        verified.program.shareOutputWith(output);
+        verified.program.execute();
+        return output.getOutput();
+    }
+
+    @Benchmark
+    public String closureCompileAndExecute(Verified verified) {
+        CatScriptProgram compiled = new ClosureCompiler(verified.program).compileToClosures();
+        compiled.execute();
+        return compiled.getOutput();
+    }
+
+    @Benchmark
+    public String registerCompileAndExecute(Verified verified) {
+        CatScriptProgram compiled = new RegisterCompiler(verified.program).compileToRegisters();
+        compiled.execute();
+        return compiled.getOutput();
+    }
+
+    @Benchmark
+    public String compileAndExecute(Verified verified) {
+        CatScriptProgram compiled = new ByteCodeGenerator(verified.program).compileToBytecode();
+        compiled.execute();
+        return compiled.getOutput();
+    }
+}
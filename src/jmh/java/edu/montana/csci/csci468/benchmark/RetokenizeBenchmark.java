@@ -0,0 +1,38 @@
+package edu.montana.csci.csci468.benchmark;
+
+import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
+import edu.montana.csci.csci468.tokenizer.TokenList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// A keystroke in the middle of each corpus, typed and then deleted so the text stays the same.
+// Its cost should stay flat as the corpus grows, unlike PipelineBenchmark.tokenize
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetokenizeBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private TokenList tokens;
+    private int offset;
+
+    @Setup(Level.Trial)
+    public void tokenizeCorpus() {
+        String source = Corpus.script(size);
+        tokens = new CatScriptTokenizer(source).getTokens();
+        offset = source.indexOf('\n', source.length() / 2) + 1;
+    }
+
+    @Benchmark
+    public TokenList typeAndDelete() {
+        tokens = CatScriptTokenizer.retokenize(tokens, offset, 0, "x");
+        tokens = CatScriptTokenizer.retokenize(tokens, offset, 1, "");
+        return tokens;
+    }
+}
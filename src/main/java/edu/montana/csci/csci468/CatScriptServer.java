@@ -1,6 +1,12 @@
 package edu.montana.csci.csci468;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
+import edu.montana.csci.csci468.bytecode.CompiledProgramCache;
+import edu.montana.csci.csci468.eval.ExecutionLimitException;
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.eval.Profiler;
+import edu.montana.csci.csci468.eval.TieredEngine;
 import edu.montana.csci.csci468.js.JSTranspiler;
 import edu.montana.csci.csci468.parser.CatScriptParser;
 import edu.montana.csci.csci468.parser.ParseError;
@@ -18,11 +24,15 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static spark.Spark.*;
 
 class CatScriptServer {
+
+    private static final CompiledProgramCache PROGRAMS = new CompiledProgramCache(256);
+
     public static void main(String[] args) {
         port(6789);
         Spark.staticFiles.location("/public");
@@ -35,7 +45,7 @@ class CatScriptServer {
             if (name != null && !name.isBlank()) {
                 URL resource = CatScriptServer.class.getResource("/scripts/" + name );
                 Path path = Paths.get(resource.toURI());
-                code = Files.lines(path).collect(Collectors.joining("\n"));
+                code = Files.readString(path);
             } else {
                 code = "\n" +
                         "  // welcome to cs446!!!\n" +
@@ -65,11 +75,52 @@ class CatScriptServer {
             CatScriptProgram program = new CatScriptParser().parse(source);
             try {
                 program.verify();
+                program.setLimits(requestLimits());
                 program.execute();
                 return program.getOutput();
             } catch (ParseErrorException parseErrorException) {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
+            } catch (ExecutionLimitException limitException) {
+                return "<pre>" + limitException.getMessage() + "</pre>";
+            }
+        });
+
+        // interprets, moving hot functions over to JVM bytecode as they warm up
+        get("/tiered", (req, resp) -> {
+            String source = req.queryParams("src");
+            CatScriptProgram program = new CatScriptParser().parse(source);
+            try {
+                program.verify();
+                program.setLimits(requestLimits());
+                new TieredEngine(program).execute();
+                return program.getOutput();
+            } catch (ParseErrorException parseErrorException) {
+                parseErrorException.printStackTrace();
+                return "<pre>" + parseErrorException.getMessage() + "</pre>";
+            } catch (ExecutionLimitException limitException) {
+                return "<pre>" + limitException.getMessage() + "</pre>";
+            }
+        });
+
+        // the interpreter's profile of the program, as json or as collapsed stacks for flame graphs
+        get("/profile", (req, resp) -> {
+            String source = req.queryParams("src");
+            CatScriptProgram program = new CatScriptParser().parse(source);
+            try {
+                program.verify();
+                Profiler profiler = new Profiler();
+                program.setProfiler(profiler);
+                program.execute();
+                if ("collapsed".equals(req.queryParams("format"))) {
+                    resp.type("text/plain");
+                    return profiler.toCollapsedStacks();
+                }
+                resp.type("application/json");
+                return profiler.toJson();
+            } catch (ParseErrorException parseErrorException) {
+                parseErrorException.printStackTrace();
+                return "<pre>" + parseErrorException.getMessage() + "</pre>";
             }
         });
 
@@ -91,18 +142,38 @@ class CatScriptServer {
 
         get("/compile", (req, resp) -> {
             String source = req.queryParams("src");
-            CatScriptProgram program = new CatScriptParser().parse(source);
             try {
-                program.verify();
-                ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program);
-                CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
+                if ("true".equals(req.queryParams("dump"))) {
+                    // compiled on the side, the cache doesn't keep disassemblies
+                    CatScriptProgram program = new CatScriptParser().parse(source);
+                    program.verify();
+                    program.setLimits(requestLimits());
+                    ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program, CompileOptions.DEBUG);
+                    CatScriptProgram compiledProgram = byteCodeGenerator.compileToBytecode();
+                    compiledProgram.execute();
+                    return "<pre>" + "\n\n  Bytecode =================\n\n" +
+                            byteCodeGenerator.getDisassembly().replace("&", "&amp;").replace("<", "&lt;") +
+                            "\n\n  Output =================\n\n" + compiledProgram.getOutput() + "</pre>";
+                }
+                CatScriptProgram compiledProgram = PROGRAMS.instantiate(source, requestLimits());
                 compiledProgram.execute();
                 return compiledProgram.getOutput();
             } catch (ParseErrorException parseErrorException) {
                 parseErrorException.printStackTrace();
                 return "<pre>" + parseErrorException.getMessage() + "</pre>";
+            } catch (ExecutionLimitException limitException) {
+                return "<pre>" + limitException.getMessage() + "</pre>";
             }
         });
 
     }
-}
\ No newline at end of file
+
+    // keeps a runaway script from tying up a server thread
+    private static ExecutionLimits requestLimits() {
+        return new ExecutionLimits()
+                .maxSteps(10_000_000)
+                .timeout(5, TimeUnit.SECONDS)
+                .maxCallDepth(1_000)
+                .maxListElements(1_000_000);
+    }
+}
@@ -0,0 +1,183 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.tokenizer.MappedSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Compiles .cat scripts ahead of time, into class files in a directory or into a runnable jar.
+// Each script becomes catscript.<Name>, named after its file, with a main that runs it and
+// prints its output.  The classes extend CatScriptProgram, so jars carry the CatScript classes
+// along unless told not to
+//
+//   AheadOfTimeCompiler (-d <directory> | -jar <file> [-no-runtime]) script.cat...
+public class AheadOfTimeCompiler {
+
+    private static final String PACKAGE = "catscript";
+    private static final String RUNTIME_PACKAGE = "edu/montana/csci/csci468/";
+
+    private final CompileOptions options;
+
+    public AheadOfTimeCompiler() {
+        this(CompileOptions.VERIFY);
+    }
+
+    public AheadOfTimeCompiler(CompileOptions options) {
+        this.options = options;
+    }
+
+    // hello-world.cat becomes catscript.HelloWorld
+    public static String classNameFor(Path script) {
+        String fileName = script.getFileName().toString();
+        if (fileName.endsWith(".cat")) {
+            fileName = fileName.substring(0, fileName.length() - ".cat".length());
+        }
+        StringBuilder name = new StringBuilder();
+        boolean upper = true;
+        for (char c : fileName.toCharArray()) {
+            if (Character.isJavaIdentifierPart(c)) {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            name.insert(0, "Script");
+        }
+        return PACKAGE + "." + name;
+    }
+
+    // class file paths, like catscript/Hello.class, to their bytes
+    public Map<String, byte[]> compile(List<Path> scripts) {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (Path script : scripts) {
+            String className = classNameFor(script);
+            CatScriptProgram program = new CatScriptParser().parse(MappedSource.map(script));
+            program.verify();
+            byte[] classBytes = new ByteCodeGenerator(program, options).compileToClassFile(className);
+            if (classes.put(className.replace('.', '/') + ".class", classBytes) != null) {
+                throw new IllegalArgumentException("More than one script compiles to " + className);
+            }
+        }
+        return classes;
+    }
+
+    public void writeClasses(List<Path> scripts, Path directory) throws IOException {
+        for (Map.Entry<String, byte[]> entry : compile(scripts).entrySet()) {
+            Path classFile = directory.resolve(entry.getKey());
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, entry.getValue());
+        }
+    }
+
+    // the first script is the jar's main class, the others can be run with java -cp
+    public void writeJar(List<Path> scripts, Path jar, boolean embedRuntime) throws IOException {
+        Map<String, byte[]> classes = compile(scripts);
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, classNameFor(scripts.get(0)));
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                out.putNextEntry(new JarEntry(entry.getKey()));
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+            if (embedRuntime) {
+                copyRuntime(out);
+            }
+        }
+    }
+
+    // the CatScript classes, from wherever this class was loaded: a directory or a jar
+    private static void copyRuntime(JarOutputStream out) throws IOException {
+        Path location;
+        try {
+            location = Paths.get(AheadOfTimeCompiler.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        if (Files.isDirectory(location)) {
+            List<Path> classFiles;
+            try (Stream<Path> files = Files.walk(location.resolve(RUNTIME_PACKAGE))) {
+                classFiles = files.filter(file -> file.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+            }
+            for (Path classFile : classFiles) {
+                String name = location.relativize(classFile).toString().replace('\\', '/');
+                try (InputStream in = Files.newInputStream(classFile)) {
+                    copyEntry(out, name, in);
+                }
+            }
+        } else {
+            try (JarFile runtime = new JarFile(location.toFile())) {
+                Enumeration<JarEntry> entries = runtime.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    if (entry.getName().startsWith(RUNTIME_PACKAGE) && entry.getName().endsWith(".class")) {
+                        try (InputStream in = runtime.getInputStream(entry)) {
+                            copyEntry(out, entry.getName(), in);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void copyEntry(JarOutputStream out, String name, InputStream in) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        in.transferTo(out);
+        out.closeEntry();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = null;
+        Path jar = null;
+        boolean embedRuntime = true;
+        List<Path> scripts = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-d") && i + 1 < args.length) {
+                directory = Paths.get(args[++i]);
+            } else if (args[i].equals("-jar") && i + 1 < args.length) {
+                jar = Paths.get(args[++i]);
+            } else if (args[i].equals("-no-runtime")) {
+                embedRuntime = false;
+            } else {
+                scripts.add(Paths.get(args[i]));
+            }
+        }
+        if (scripts.isEmpty() || (directory == null) == (jar == null)) {
+            System.err.println("usage: AheadOfTimeCompiler (-d <directory> | -jar <file> [-no-runtime]) script.cat...");
+            System.exit(2);
+        }
+        try {
+            AheadOfTimeCompiler compiler = new AheadOfTimeCompiler();
+            if (directory != null) {
+                compiler.writeClasses(scripts, directory);
+            } else {
+                compiler.writeJar(scripts, jar, embedRuntime);
+            }
+        } catch (ParseErrorException parseErrorException) {
+            System.err.println(parseErrorException.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package edu.montana.csci.csci468.bytecode;
 
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.eval.Profiler;
+import edu.montana.csci.csci468.parser.ParseElement;
 import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
 import org.objectweb.asm.*;
 import org.objectweb.asm.util.CheckClassAdapter;
 import org.objectweb.asm.util.TraceClassVisitor;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Collection;
 import java.util.Stack;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -14,36 +19,107 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class ByteCodeGenerator {
 
     private static final AtomicInteger classInteger = new AtomicInteger();
-    private static final DynamicClassLoader CLASS_LOADER = new DynamicClassLoader();
 
     private ClassWriter classWriter;
     private MethodGenerator currentMethod;
     private Stack<MethodGenerator> methodStack;
 
     private final CatScriptProgram program;
+    private final CompileOptions options;
+    private String disassembly;
+    private Profiler profiler;
+    private ExecutionLimits limits;
     private String internalClassName;
     private String dotClassName;
 
     public ByteCodeGenerator(CatScriptProgram program) {
+        this(program, CompileOptions.PRODUCTION);
+    }
+
+    public ByteCodeGenerator(CatScriptProgram program, CompileOptions options) {
         this.program = program;
+        this.options = options;
     }
 
     public CatScriptProgram compileToBytecode() {
+        beginClass(nextClassName());
+        makeExecute();
+        return finishClass();
+    }
+
+    // the class file of the program under a fixed name, with a static main that runs it and
+    // prints its output, for compiling ahead of time
+    public byte[] compileToClassFile(String className) {
+        beginClass(className.replace('.', '/'));
+        makeExecute();
+        makeMain();
+        return toClassBytes();
+    }
+
+    // a class holding just these functions as methods, with an empty execute, so interpreted
+    // code can call into them.  Every function they call has to be in the collection too
+    public CatScriptProgram compileFunctions(Collection<FunctionDefinitionStatement> functions) {
+        beginClass(nextClassName());
+        currentMethod = makeMethod(Opcodes.ACC_PUBLIC, "execute", "()V");
+        for (FunctionDefinitionStatement function : functions) {
+            function.compile(this);
+        }
+        currentMethod.addInstruction(Opcodes.RETURN);
+        currentMethod.close();
+        return finishClass();
+    }
+
+    private static String nextClassName() {
+        return "edu/montana/csci/csci466/bytecode/CatScriptProgram" + classInteger.incrementAndGet();
+    }
+
+    private void beginClass(String className) {
+        profiler = program.getProfiler();
+        limits = program.getLimits();
         methodStack = new Stack<>();
         classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
-        internalClassName = "edu/montana/csci/csci466/bytecode/CatScriptProgram" + classInteger.incrementAndGet();
+        internalClassName = className;
         dotClassName = internalClassName.replace('/', '.');
         makeClass(internalClassName);
         makeConstructor();
+    }
 
+    private void makeExecute() {
         currentMethod = makeMethod(Opcodes.ACC_PUBLIC, "execute", "()V");
+        limit("start");
         program.compile(this);
         currentMethod.close();
+    }
+
+    private void makeMain() {
+        try (MethodGenerator main = makeMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "main", "([Ljava/lang/String;)V")) {
+            main.addTypeInstruction(Opcodes.NEW, internalClassName);
+            main.addInstruction(Opcodes.DUP);
+            main.addMethodInstruction(Opcodes.INVOKESPECIAL, internalClassName, "<init>", "()V");
+            main.addVarInstruction(Opcodes.ASTORE, 1);
+            main.addVarInstruction(Opcodes.ALOAD, 1);
+            main.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalClassName, "execute", "()V");
+            main.addFieldInstruction(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
+            main.addVarInstruction(Opcodes.ALOAD, 1);
+            main.addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalClassName, "getOutput", "()Ljava/lang/String;");
+            main.addMethodInstruction(Opcodes.INVOKEVIRTUAL, "java/io/PrintStream", "print", "(Ljava/lang/String;)V");
+            main.addInstruction(Opcodes.RETURN);
+        }
+    }
 
+    private byte[] toClassBytes() {
         classWriter.visitEnd();
         byte[] classBytes = classWriter.toByteArray();
-        printClassASM(classBytes);
-        return loadClass(dotClassName, classBytes);
+        checkClass(classBytes);
+        return classBytes;
+    }
+
+    private CatScriptProgram finishClass() {
+        byte[] classBytes = toClassBytes();
+        CatScriptProgram compiled = loadClass(dotClassName, classBytes);
+        compiled.setProfiler(profiler);
+        compiled.setLimits(limits);
+        return compiled;
     }
 
     private void makeClass(String className) {
@@ -80,22 +156,34 @@ public class ByteCodeGenerator {
         return new MethodGenerator(method);
     }
 
-    private void printClassASM(byte[] classBytes) {
-        StringWriter writer = new StringWriter();
-        var visitor = new TraceClassVisitor(new PrintWriter(writer));
-        CheckClassAdapter checkAdapter = new CheckClassAdapter(visitor);
-        ClassReader reader = new ClassReader(classBytes);
-        reader.accept(checkAdapter, 0);
-        String decompiledTransformedClass = writer.getBuffer().toString();
-        System.out.println(" JVM Bytecode ===================================\n");
-        System.out.println(decompiledTransformedClass);
-        System.out.println("\n ================================================");
+    private void checkClass(byte[] classBytes) {
+        if (options.isVerifying()) {
+            StringWriter problems = new StringWriter();
+            CheckClassAdapter.verify(new ClassReader(classBytes), ByteCodeGenerator.class.getClassLoader(),
+                    false, new PrintWriter(problems));
+            if (problems.getBuffer().length() > 0) {
+                throw new IllegalStateException("Generated invalid bytecode for " + dotClassName + "\n" + problems);
+            }
+        }
+        if (options.isDisassembling()) {
+            StringWriter writer = new StringWriter();
+            new ClassReader(classBytes).accept(new TraceClassVisitor(new PrintWriter(writer)), 0);
+            disassembly = writer.toString();
+        }
+    }
+
+    // the last generated class, when compiling with CompileOptions.DEBUG
+    public String getDisassembly() {
+        return disassembly;
     }
 
+    // every program gets a loader of its own, so once nothing refers to the program the class
+    // and its loader can be collected, and its metaspace freed
     private CatScriptProgram loadClass(String dotClassName, byte[] classBytes) {
         try {
-            CLASS_LOADER.defineClass(dotClassName, classBytes);
-            Class<?> clazz = CLASS_LOADER.loadClass(dotClassName);
+            DynamicClassLoader classLoader = new DynamicClassLoader(ByteCodeGenerator.class.getClassLoader());
+            classLoader.defineClass(dotClassName, classBytes);
+            Class<?> clazz = classLoader.loadClass(dotClassName);
             return (CatScriptProgram) clazz.getConstructor().newInstance();
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -114,11 +202,24 @@ public class ByteCodeGenerator {
         return currentMethod.resolveLocalStorageSlotFor(name);
     }
 
+    // locals created until the matching popScope are freed by it
+    public void pushScope() {
+        currentMethod.pushScope();
+    }
+
+    public void popScope() {
+        currentMethod.popScope();
+    }
+
     public String getProgramInternalName() {
         return internalClassName;
     }
 
     static class DynamicClassLoader extends ClassLoader {
+        DynamicClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
         public void defineClass(String name, byte[] bytes) {
             defineClass(name, bytes, 0, bytes.length);
         }
@@ -160,10 +261,55 @@ public class ByteCodeGenerator {
         currentMethod.addLabel(label);
     }
 
+    public void addFinallyBlock(Label start, Label end, Label handler) {
+        currentMethod.addFinallyBlock(start, end, handler);
+    }
+
     public void pushConstantOntoStack(Object value) {
         currentMethod.pushConstantOntoStack(value);
     }
 
+    public boolean isProfiling() {
+        return profiler != null;
+    }
+
+    public boolean isLimited() {
+        return limits != null;
+    }
+
+    // when the program is profiled, calls the profiler hook for this element, by its id
+    public void profile(String hook, ParseElement element) {
+        if (profiler != null) {
+            addVarInstruction(Opcodes.ALOAD, 0);
+            addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class),
+                    "getProfiler", "()L" + internalNameFor(Profiler.class) + ";");
+            pushConstantOntoStack(profiler.idFor(element));
+            addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(Profiler.class), hook, "(I)V");
+        }
+    }
+
+    // when the program runs under limits, calls one of the ExecutionLimits hooks
+    public void limit(String hook) {
+        if (limits != null) {
+            loadLimits();
+            addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(ExecutionLimits.class), hook, "()V");
+        }
+    }
+
+    public void limit(String hook, int argument) {
+        if (limits != null) {
+            loadLimits();
+            pushConstantOntoStack(argument);
+            addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(ExecutionLimits.class), hook, "(I)V");
+        }
+    }
+
+    private void loadLimits() {
+        addVarInstruction(Opcodes.ALOAD, 0);
+        addMethodInstruction(Opcodes.INVOKEVIRTUAL, internalNameFor(CatScriptProgram.class),
+                "getLimits", "()L" + internalNameFor(ExecutionLimits.class) + ";");
+    }
+
     public void addField(String name, String descriptor) {
         FieldVisitor fieldVisitor = classWriter.visitField(Opcodes.ACC_PRIVATE, name, descriptor, null, null);
         fieldVisitor.visitEnd();
@@ -0,0 +1,36 @@
+package edu.montana.csci.csci468.bytecode;
+
+// How much checking the ByteCodeGenerator does on the classes it generates.  Production defines
+// them as they are, verify runs ASM's data flow checks on them first, and debug also keeps a
+// disassembly of them
+public class CompileOptions {
+
+    public enum Mode { PRODUCTION, VERIFY, DEBUG }
+
+    public static final CompileOptions PRODUCTION = new CompileOptions(Mode.PRODUCTION);
+    public static final CompileOptions VERIFY = new CompileOptions(Mode.VERIFY);
+    public static final CompileOptions DEBUG = new CompileOptions(Mode.DEBUG);
+
+    private final Mode mode;
+
+    private CompileOptions(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isVerifying() {
+        return mode != Mode.PRODUCTION;
+    }
+
+    public boolean isDisassembling() {
+        return mode == Mode.DEBUG;
+    }
+
+    @Override
+    public String toString() {
+        return mode.name().toLowerCase();
+    }
+}
@@ -0,0 +1,142 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Keeps the classes of recently compiled programs, keyed by a hash of their normalized source,
+// so a program submitted again skips tokenizing, parsing, verifying and class definition.  Each
+// lookup hands out a fresh instance, programs collect their output so instances can't be shared.
+// Least recently used classes are dropped once there are more than maxEntries
+public class CompiledProgramCache {
+
+    private final int maxEntries;
+    private final Map<String, Constructor<? extends CatScriptProgram>> programs;
+    private long hits;
+    private long misses;
+
+    public CompiledProgramCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.programs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Constructor<? extends CatScriptProgram>> eldest) {
+                return size() > CompiledProgramCache.this.maxEntries;
+            }
+        };
+    }
+
+    // limits are compiled into the code, so programs compiled with and without them are
+    // cached apart.  Throws ParseErrorException for invalid source, which isn't cached
+    public CatScriptProgram instantiate(String source, ExecutionLimits limits) {
+        String key = keyFor(source) + (limits == null ? "" : ":limited");
+        Constructor<? extends CatScriptProgram> constructor;
+        synchronized (this) {
+            constructor = programs.get(key);
+            if (constructor == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        if (constructor == null) {
+            // compiled outside the lock, two racing requests both compile and the last one wins
+            constructor = compile(source, limits);
+            synchronized (this) {
+                programs.put(key, constructor);
+            }
+        }
+        try {
+            CatScriptProgram program = constructor.newInstance();
+            program.setLimits(limits);
+            return program;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Constructor<? extends CatScriptProgram> compile(String source, ExecutionLimits limits) {
+        CatScriptProgram program = new CatScriptParser().parse(source);
+        program.verify();
+        program.setLimits(limits);
+        CatScriptProgram compiled = new ByteCodeGenerator(program).compileToBytecode();
+        try {
+            return compiled.getClass().getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized int size() {
+        return programs.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // whitespace runs and comments outside of string literals collapse to a single space, so
+    // layout doesn't change the key but nothing that separates or makes up a token is lost.  A
+    // single pass over the characters, so a hit skips the tokenizer entirely
+    static String normalize(String source) {
+        StringBuilder sb = new StringBuilder(source.length());
+        boolean space = false;
+        int length = source.length();
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                space = true;
+                continue;
+            }
+            if (c == '/' && i + 1 < length && source.charAt(i + 1) == '/') {
+                while (i + 1 < length && source.charAt(i + 1) != '\n') {
+                    i++;
+                }
+                space = true;
+                continue;
+            }
+            if (space && sb.length() > 0) {
+                sb.append(' ');
+            }
+            space = false;
+            sb.append(c);
+            if (c == '"') {
+                // copied as is up to and including the closing quote
+                for (i++; i < length; i++) {
+                    char inString = source.charAt(i);
+                    sb.append(inString);
+                    if (inString == '\\' && i + 1 < length) {
+                        sb.append(source.charAt(++i));
+                    } else if (inString == '"') {
+                        break;
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    static String keyFor(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalize(source).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,32 +2,50 @@ package edu.montana.csci.csci468.bytecode;
 
 import org.objectweb.asm.*;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class MethodGenerator implements AutoCloseable {
 
-    private AtomicInteger localStorageSlot = new AtomicInteger();
-    Map<String, Integer> localStorageMap = new HashMap<>();
+    // slot 0 holds this.  Slots are handed out stack-wise, a block's slots go back to the pool
+    // when it ends, so sibling blocks share them
+    private int lastSlot = 0;
+    private final Deque<Scope> scopes = new ArrayDeque<>();
     private final MethodVisitor delegate;
 
     public Integer nextLocalStorageSlot() {
-        return localStorageSlot.incrementAndGet();
+        return ++lastSlot;
     }
 
     public Integer createLocalStorageSlotFor(String name){
         int i = nextLocalStorageSlot();
-        localStorageMap.put(name, i);
+        scopes.peek().slots.put(name, i);
         return i;
     }
 
     public Integer resolveLocalStorageSlotFor(String name) {
-        return localStorageMap.get(name);
+        for (Scope scope : scopes) {
+            Integer slot = scope.slots.get(name);
+            if (slot != null) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    public void pushScope() {
+        scopes.push(new Scope(lastSlot));
+    }
+
+    public void popScope() {
+        lastSlot = scopes.pop().lastSlotBefore;
     }
 
     public MethodGenerator(MethodVisitor delgate) {
         this.delegate = delgate;
+        pushScope();
     }
 
     @Override
@@ -69,6 +87,11 @@ public class MethodGenerator implements AutoCloseable {
         delegate.visitLabel(label);
     }
 
+    // a handler for any exception thrown from start to end, added before those labels
+    public void addFinallyBlock(Label start, Label end, Label handler) {
+        delegate.visitTryCatchBlock(start, end, handler, null);
+    }
+
     public void pushConstantOntoStack(Object value) {
         if (value == null) {
             addInstruction(Opcodes.ACONST_NULL);
@@ -76,4 +99,13 @@ public class MethodGenerator implements AutoCloseable {
             delegate.visitLdcInsn(value);
         }
     }
+
+    private static class Scope {
+        final Map<String, Integer> slots = new HashMap<>();
+        final int lastSlotBefore;
+
+        Scope(int lastSlotBefore) {
+            this.lastSlotBefore = lastSlotBefore;
+        }
+    }
 }
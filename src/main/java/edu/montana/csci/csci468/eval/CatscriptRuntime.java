@@ -1,46 +1,92 @@
 package edu.montana.csci.csci468.eval;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Map;
-
-// TODO - implement proper scoping
+// Variables live in array-backed frames, addressed by the (depth, slot) coordinates
+// the ScopeResolver assigned them
 public class CatscriptRuntime {
-    LinkedList<Map<String, Object>> scopes = new LinkedList<>();
+    private Object[] globals = new Object[0];
+    private Object[] frame = globals;
+    // set by a return statement, statement loops stop as soon as they see it
+    private boolean returning = false;
+    private Object returnValue;
+    // set when running tiered, calls and loop iterations are reported to it
+    private TieredEngine tiering;
+    // set when the program is being profiled
+    private Profiler profiler;
+    // set when the program runs under execution limits
+    private ExecutionLimits limits;
 
-    public CatscriptRuntime(){
-        HashMap<String, Object> globalScope = new HashMap<>();
-        scopes.push(globalScope);
+    public TieredEngine getTiering() {
+        return tiering;
     }
 
-    public Object getValue(String name) {
-        Iterator<Map<String, Object>> mapIterator = scopes.descendingIterator();
-        while (mapIterator.hasNext()) {
-            Map<String, Object> scope = mapIterator.next();
-            if (scope.containsKey(name)) {
-                return scope.get(name);
-            }
-        }
-        return null;
+    public void setTiering(TieredEngine tiering) {
+        this.tiering = tiering;
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public ExecutionLimits getLimits() {
+        return limits;
+    }
+
+    public void setLimits(ExecutionLimits limits) {
+        this.limits = limits;
+    }
+
+    public void allocateGlobals(int size) {
+        globals = new Object[size];
+        frame = globals;
+    }
+
+    public Object getValue(int depth, int slot) {
+        return depth == 0 ? frame[slot] : globals[slot];
     }
 
-    public void setValue(String variableName, Object val) {
-        for (Map<String, Object> scope : scopes) {
-            if (scope.containsKey(variableName)) {
-                scope.put(variableName, val);
-                return;
-            }
+    public void setValue(int depth, int slot, Object val) {
+        if (depth == 0) {
+            frame[slot] = val;
+        } else {
+            globals[slot] = val;
         }
-        scopes.peekLast().put(variableName, val);
     }
 
-    public void pushScope() {
-        scopes.push(new HashMap<>());
+    // declarations always go into the current frame
+    public void setValue(int slot, Object val) {
+        frame[slot] = val;
+    }
+
+    // returns the caller's frame, to be handed back to popFrame
+    public Object[] pushFrame(Object[] callee) {
+        Object[] caller = frame;
+        frame = callee;
+        return caller;
+    }
+
+    public void popFrame(Object[] caller) {
+        frame = caller;
+    }
+
+    public void setReturn(Object value) {
+        returning = true;
+        returnValue = value;
+    }
+
+    public boolean isReturning() {
+        return returning;
     }
 
-    public void popScope() {
-        scopes.pop();
+    // clears the return signal, handing back its value
+    public Object takeReturnValue() {
+        Object value = returnValue;
+        returning = false;
+        returnValue = null;
+        return value;
     }
 
 }
@@ -0,0 +1,20 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+public class ClosureCatScriptProgram extends CatScriptProgram {
+
+    private CompiledStatement body;
+    private int globalFrameSize;
+
+    void setBody(CompiledStatement body, int globalFrameSize) {
+        this.body = body;
+        this.globalFrameSize = globalFrameSize;
+    }
+
+    @Override
+    public void execute(CatscriptRuntime runtime) {
+        runtime.allocateGlobals(globalFrameSize);
+        body.execute(runtime);
+    }
+}
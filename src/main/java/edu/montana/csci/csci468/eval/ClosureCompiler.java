@@ -0,0 +1,66 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiles a verified program once into a tree of closures, every node decides its operator
+// and types at compile time so running the program only does the work itself
+public class ClosureCompiler {
+
+    private final CatScriptProgram program;
+    private final ClosureCatScriptProgram compiledProgram = new ClosureCatScriptProgram();
+    private final Map<FunctionDefinitionStatement, CompiledFunction> functions = new HashMap<>();
+
+    public ClosureCompiler(CatScriptProgram program) {
+        this.program = program;
+    }
+
+    public CatScriptProgram compileToClosures() {
+        compiledProgram.setBody(program.compileClosure(this), program.getGlobalFrameSize());
+        return compiledProgram;
+    }
+
+    // print statements send their output to the compiled program
+    public CatScriptProgram getProgram() {
+        return compiledProgram;
+    }
+
+    public CompiledFunction functionFor(FunctionDefinitionStatement function) {
+        CompiledFunction compiled = functions.get(function);
+        if (compiled == null) {
+            compiled = new CompiledFunction(function.getFrameSize());
+            functions.put(function, compiled);
+            compiled.setBody(compileStatements(function.getBody()));
+        }
+        return compiled;
+    }
+
+    // runs statements in order, stopping once a return has been signalled
+    public CompiledStatement compileStatements(List<Statement> statements) {
+        List<CompiledStatement> compiled = new ArrayList<>();
+        for (Statement statement : statements) {
+            CompiledStatement compiledStatement = statement.compileClosure(this);
+            if (compiledStatement != null) {
+                compiled.add(compiledStatement);
+            }
+        }
+        CompiledStatement[] sequence = compiled.toArray(new CompiledStatement[0]);
+        if (sequence.length == 1) {
+            return sequence[0];
+        }
+        return runtime -> {
+            for (CompiledStatement statement : sequence) {
+                statement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,7 @@
+package edu.montana.csci.csci468.eval;
+
+// An expression compiled by the ClosureCompiler, with its operator and types already decided
+@FunctionalInterface
+public interface CompiledExpression {
+    Object evaluate(CatscriptRuntime runtime);
+}
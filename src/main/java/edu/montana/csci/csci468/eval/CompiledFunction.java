@@ -0,0 +1,31 @@
+package edu.montana.csci.csci468.eval;
+
+// A function compiled by the ClosureCompiler.  Call sites hold on to it directly, its body is
+// filled in after creation so recursive calls can refer to it while it is being compiled
+public class CompiledFunction {
+
+    private final int frameSize;
+    private CompiledStatement body;
+
+    CompiledFunction(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
+    void setBody(CompiledStatement body) {
+        this.body = body;
+    }
+
+    public Object[] newFrame() {
+        return new Object[frameSize];
+    }
+
+    public Object invoke(CatscriptRuntime runtime, Object[] frame) {
+        Object[] caller = runtime.pushFrame(frame);
+        try {
+            body.execute(runtime);
+        } finally {
+            runtime.popFrame(caller);
+        }
+        return runtime.takeReturnValue();
+    }
+}
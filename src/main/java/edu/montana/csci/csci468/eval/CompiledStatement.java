@@ -0,0 +1,7 @@
+package edu.montana.csci.csci468.eval;
+
+// A statement compiled by the ClosureCompiler
+@FunctionalInterface
+public interface CompiledStatement {
+    void execute(CatscriptRuntime runtime);
+}
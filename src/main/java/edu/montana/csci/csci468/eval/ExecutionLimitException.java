@@ -0,0 +1,8 @@
+package edu.montana.csci.csci468.eval;
+
+public class ExecutionLimitException extends RuntimeException {
+
+    public ExecutionLimitException(String message) {
+        super(message);
+    }
+}
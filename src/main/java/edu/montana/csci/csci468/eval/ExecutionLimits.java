@@ -0,0 +1,98 @@
+package edu.montana.csci.csci468.eval;
+
+import java.util.concurrent.TimeUnit;
+
+// Budgets for running untrusted programs, attached with CatScriptProgram.setLimits before it is
+// executed or compiled.  Only loops and calls can make a program run longer than its source, so
+// steps are counted on loop iterations and calls, and the clock is only read every so many
+// steps.  Holds the counters of a run, so every execution needs its own instance
+public class ExecutionLimits {
+
+    // steps between looks at the clock, a power of two
+    private static final int DEADLINE_INTERVAL = 1024;
+
+    private long maxSteps = Long.MAX_VALUE;
+    private long timeoutNanos = Long.MAX_VALUE;
+    private int maxCallDepth = Integer.MAX_VALUE;
+    private long maxListElements = Long.MAX_VALUE;
+
+    private long steps;
+    private int callDepth;
+    private long listElements;
+    private long deadline;
+
+    public ExecutionLimits maxSteps(long maxSteps) {
+        this.maxSteps = maxSteps;
+        return this;
+    }
+
+    public ExecutionLimits timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = unit.toNanos(timeout);
+        return this;
+    }
+
+    public ExecutionLimits maxCallDepth(int maxCallDepth) {
+        this.maxCallDepth = maxCallDepth;
+        return this;
+    }
+
+    // elements across every list the program creates
+    public ExecutionLimits maxListElements(long maxListElements) {
+        this.maxListElements = maxListElements;
+        return this;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public int getCallDepth() {
+        return callDepth;
+    }
+
+    //==============================================================
+    // Hooks, called from the interpreter and compiled code
+    //==============================================================
+
+    public void start() {
+        steps = 0;
+        callDepth = 0;
+        listElements = 0;
+        long now = System.nanoTime();
+        deadline = timeoutNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeoutNanos;
+    }
+
+    public void step() {
+        if (++steps > maxSteps) {
+            throw new ExecutionLimitException("Program exceeded " + maxSteps + " steps");
+        }
+        if ((steps & (DEADLINE_INTERVAL - 1)) == 0) {
+            checkDeadline();
+        }
+    }
+
+    public void enterCall() {
+        step();
+        if (++callDepth > maxCallDepth) {
+            throw new ExecutionLimitException("Program exceeded a call depth of " + maxCallDepth);
+        }
+    }
+
+    public void exitCall() {
+        callDepth--;
+    }
+
+    public void allocateList(int size) {
+        listElements += size;
+        if (listElements > maxListElements) {
+            throw new ExecutionLimitException("Program exceeded " + maxListElements + " list elements");
+        }
+    }
+
+    private void checkDeadline() {
+        if (System.nanoTime() > deadline) {
+            throw new ExecutionLimitException("Program exceeded its time limit of " +
+                    TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms");
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
+import edu.montana.csci.csci468.parser.statements.ForStatement;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.IfStatement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Opt-in execution profile of a program, attached with CatScriptProgram.setProfiler before it
+// is executed or compiled.  Counts calls per function and call site, iterations per for loop
+// and taken/not taken per if, and times functions.  Compiled code refers to elements by the id
+// they were given at compile time, the interpreter looks them up as it goes
+public class Profiler {
+
+    private static final String ROOT = "main";
+
+    private final Map<ParseElement, Integer> ids = new IdentityHashMap<>();
+    private final List<ParseElement> elements = new ArrayList<>();
+    // invocations, calls, iterations or times taken, depending on the element
+    private long[] counts = new long[16];
+    // nanoseconds for functions, times not taken for ifs
+    private long[] others = new long[16];
+    // activations of each function on the stack, so recursion isn't timed twice
+    private int[] active = new int[16];
+
+    // every distinct stack is a node in a tree of calls, node 0 being main.  A node's children
+    // are chained through their next sibling, and its path is only spelled out for the results
+    private int nodes = 1;
+    private int[] nodeFunctions = new int[16];
+    private int[] nodeParents = new int[16];
+    private int[] firstChildren = new int[16];
+    private int[] nextSiblings = new int[16];
+    // self time of each stack, and whether it has finished a call to be reported
+    private long[] nodeNanos = new long[16];
+    private boolean[] nodeExited = new boolean[16];
+
+    // the functions currently running, as their nodes, start times and time spent in callees
+    private int depth = 0;
+    private int[] stackNodes = new int[16];
+    private long[] stackStarts = new long[16];
+    private long[] stackChildNanos = new long[16];
+
+    public Profiler() {
+        nodeFunctions[0] = -1;
+        firstChildren[0] = -1;
+    }
+
+    public int idFor(ParseElement element) {
+        Integer id = ids.get(element);
+        if (id == null) {
+            id = elements.size();
+            elements.add(element);
+            ids.put(element, id);
+            if (id == counts.length) {
+                counts = Arrays.copyOf(counts, id * 2);
+                others = Arrays.copyOf(others, id * 2);
+                active = Arrays.copyOf(active, id * 2);
+            }
+        }
+        return id;
+    }
+
+    //==============================================================
+    // Hooks, the int versions are called from compiled code
+    //==============================================================
+
+    public void enter(FunctionDefinitionStatement function) {
+        enter(idFor(function));
+    }
+
+    public void enter(int function) {
+        counts[function]++;
+        active[function]++;
+        if (depth == stackNodes.length) {
+            stackNodes = Arrays.copyOf(stackNodes, depth * 2);
+            stackStarts = Arrays.copyOf(stackStarts, depth * 2);
+            stackChildNanos = Arrays.copyOf(stackChildNanos, depth * 2);
+        }
+        stackNodes[depth] = childOf(depth == 0 ? 0 : stackNodes[depth - 1], function);
+        stackChildNanos[depth] = 0;
+        stackStarts[depth++] = System.nanoTime();
+    }
+
+    public void exit(FunctionDefinitionStatement function) {
+        exit(idFor(function));
+    }
+
+    public void exit(int function) {
+        depth--;
+        long elapsed = System.nanoTime() - stackStarts[depth];
+        if (--active[function] == 0) {
+            others[function] += elapsed;
+        }
+        int node = stackNodes[depth];
+        nodeNanos[node] += elapsed - stackChildNanos[depth];
+        nodeExited[node] = true;
+        if (depth > 0) {
+            stackChildNanos[depth - 1] += elapsed;
+        }
+    }
+
+    // the node for a call to the function from the given stack, added the first time it is seen
+    private int childOf(int parent, int function) {
+        for (int child = firstChildren[parent]; child >= 0; child = nextSiblings[child]) {
+            if (nodeFunctions[child] == function) {
+                return child;
+            }
+        }
+        if (nodes == nodeFunctions.length) {
+            nodeFunctions = Arrays.copyOf(nodeFunctions, nodes * 2);
+            nodeParents = Arrays.copyOf(nodeParents, nodes * 2);
+            firstChildren = Arrays.copyOf(firstChildren, nodes * 2);
+            nextSiblings = Arrays.copyOf(nextSiblings, nodes * 2);
+            nodeNanos = Arrays.copyOf(nodeNanos, nodes * 2);
+            nodeExited = Arrays.copyOf(nodeExited, nodes * 2);
+        }
+        int child = nodes++;
+        nodeFunctions[child] = function;
+        nodeParents[child] = parent;
+        firstChildren[child] = -1;
+        nextSiblings[child] = firstChildren[parent];
+        firstChildren[parent] = child;
+        return child;
+    }
+
+    public void call(FunctionCallExpression callSite) {
+        counts[idFor(callSite)]++;
+    }
+
+    public void call(int callSite) {
+        counts[callSite]++;
+    }
+
+    public void iteration(ForStatement loop) {
+        counts[idFor(loop)]++;
+    }
+
+    public void iteration(int loop) {
+        counts[loop]++;
+    }
+
+    public void branch(IfStatement statement, boolean taken) {
+        if (taken) {
+            taken(idFor(statement));
+        } else {
+            notTaken(idFor(statement));
+        }
+    }
+
+    public void taken(int statement) {
+        counts[statement]++;
+    }
+
+    public void notTaken(int statement) {
+        others[statement]++;
+    }
+
+    //==============================================================
+    // Results
+    //==============================================================
+
+    public long getCount(ParseElement element) {
+        Integer id = ids.get(element);
+        return id == null ? 0 : counts[id];
+    }
+
+    public long getNanos(FunctionDefinitionStatement function) {
+        Integer id = ids.get(function);
+        return id == null ? 0 : others[id];
+    }
+
+    public long getNotTaken(IfStatement statement) {
+        Integer id = ids.get(statement);
+        return id == null ? 0 : others[id];
+    }
+
+    public String toJson() {
+        StringBuilder functions = new StringBuilder();
+        StringBuilder callSites = new StringBuilder();
+        StringBuilder loops = new StringBuilder();
+        StringBuilder branches = new StringBuilder();
+        for (int id = 0; id < elements.size(); id++) {
+            ParseElement element = elements.get(id);
+            if (element instanceof FunctionDefinitionStatement) {
+                append(functions, "{\"name\": \"" + ((FunctionDefinitionStatement) element).getName() + "\", \"line\": " +
+                        lineOf(element) + ", \"invocations\": " + counts[id] + ", \"nanos\": " + others[id] + "}");
+            } else if (element instanceof FunctionCallExpression) {
+                append(callSites, "{\"function\": \"" + ((FunctionCallExpression) element).getName() + "\", \"line\": " +
+                        lineOf(element) + ", \"calls\": " + counts[id] + "}");
+            } else if (element instanceof ForStatement) {
+                append(loops, "{\"variable\": \"" + ((ForStatement) element).getVariableName() + "\", \"line\": " +
+                        lineOf(element) + ", \"iterations\": " + counts[id] + "}");
+            } else if (element instanceof IfStatement) {
+                append(branches, "{\"line\": " + lineOf(element) + ", \"taken\": " + counts[id] +
+                        ", \"notTaken\": " + others[id] + "}");
+            }
+        }
+        return "{\n" +
+                "  \"functions\": [" + functions + "],\n" +
+                "  \"callSites\": [" + callSites + "],\n" +
+                "  \"loops\": [" + loops + "],\n" +
+                "  \"branches\": [" + branches + "]\n" +
+                "}\n";
+    }
+
+    // one "main;caller;callee nanos" line per stack, the self time spent in it, which is the
+    // collapsed format flame graph tools read
+    public String toCollapsedStacks() {
+        // parents are always added before their children, so their paths are already built
+        String[] paths = new String[nodes];
+        paths[0] = ROOT;
+        StringBuilder sb = new StringBuilder();
+        for (int node = 1; node < nodes; node++) {
+            paths[node] = paths[nodeParents[node]] + ";" +
+                    ((FunctionDefinitionStatement) elements.get(nodeFunctions[node])).getName();
+            if (nodeExited[node]) {
+                sb.append(paths[node]).append(' ').append(nodeNanos[node]).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder list, String entry) {
+        if (list.length() > 0) {
+            list.append(", ");
+        }
+        list.append("\n    ").append(entry);
+    }
+
+    private static int lineOf(ParseElement element) {
+        return element.getStart() == null ? 0 : element.getStart().getLine();
+    }
+}
@@ -0,0 +1,190 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
+import edu.montana.csci.csci468.parser.expressions.IdentifierExpression;
+import edu.montana.csci.csci468.parser.statements.AssignmentStatement;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Runs a program in the interpreter while counting calls and loop iterations per function.  Once
+// a function's count passes the threshold, it is compiled through the ByteCodeGenerator along
+// with every function it calls, and its next call goes to the compiled method.
+//
+// Compiled methods can't see the interpreter's globals, so a function that reads one, directly
+// or through a callee, stays interpreted
+public class TieredEngine {
+
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private final CatScriptProgram program;
+    private final int threshold;
+    private final Map<FunctionDefinitionStatement, Profile> profiles = new HashMap<>();
+    private Profile current;
+
+    public TieredEngine(CatScriptProgram program) {
+        this(program, DEFAULT_THRESHOLD);
+    }
+
+    public TieredEngine(CatScriptProgram program, int threshold) {
+        this.program = program;
+        this.threshold = threshold;
+    }
+
+    public void execute() {
+        CatscriptRuntime runtime = program.newRuntime();
+        runtime.setTiering(this);
+        program.execute(runtime);
+    }
+
+    public boolean isCompiled(FunctionDefinitionStatement function) {
+        Profile profile = profiles.get(function);
+        return profile != null && profile.method != null;
+    }
+
+    // whether the next call of the function runs compiled, promoting it first when that call
+    // takes it over the threshold.  Compiled methods count their own calls for the profiler and
+    // limits, so callers use this to know when to leave the counting to them
+    public boolean callsCompiled(FunctionDefinitionStatement function) {
+        Profile profile = profileFor(function);
+        if (profile.method == null && !profile.interpretOnly && profile.count + 1 >= threshold) {
+            promote(profile);
+        }
+        return profile.method != null;
+    }
+
+    public Object invoke(CatscriptRuntime runtime, FunctionDefinitionStatement function, Object[] frame) {
+        Profile profile = profileFor(function);
+        if (profile.method == null && !profile.interpretOnly && ++profile.count >= threshold) {
+            promote(profile);
+        }
+        if (profile.method != null) {
+            return profile.invokeCompiled(frame);
+        }
+        Profile caller = current;
+        current = profile;
+        try {
+            return function.invoke(runtime, frame);
+        } finally {
+            current = caller;
+        }
+    }
+
+    // a loop iteration counts towards the function it runs in, top level loops don't count
+    public void backEdge() {
+        if (current != null) {
+            current.count++;
+        }
+    }
+
+    private Profile profileFor(FunctionDefinitionStatement function) {
+        Profile profile = profiles.get(function);
+        if (profile == null) {
+            profile = new Profile(function);
+            profiles.put(function, profile);
+        }
+        return profile;
+    }
+
+    private void promote(Profile profile) {
+        Set<FunctionDefinitionStatement> functions = new LinkedHashSet<>();
+        if (!collectCallees(profile.function, functions)) {
+            profile.interpretOnly = true;
+            return;
+        }
+        try {
+            CatScriptProgram compiled = new ByteCodeGenerator(program).compileFunctions(functions);
+            compiled.shareOutputWith(program);
+            for (FunctionDefinitionStatement function : functions) {
+                profileFor(function).bind(compiled);
+            }
+        } catch (RuntimeException | NoSuchMethodException e) {
+            // the bytecode backend doesn't support everything the interpreter does
+            profile.interpretOnly = true;
+        }
+    }
+
+    private boolean collectCallees(FunctionDefinitionStatement function, Set<FunctionDefinitionStatement> functions) {
+        return !functions.add(function) || canCompile(function, functions);
+    }
+
+    private boolean canCompile(ParseElement element, Set<FunctionDefinitionStatement> functions) {
+        if (element instanceof AssignmentStatement && ((AssignmentStatement) element).isGlobal()) {
+            return false;
+        } else if (element instanceof IdentifierExpression && ((IdentifierExpression) element).isGlobal()) {
+            return false;
+        } else if (element instanceof FunctionCallExpression &&
+                !collectCallees(((FunctionCallExpression) element).getFunction(), functions)) {
+            return false;
+        }
+        for (ParseElement child : element.getChildren()) {
+            if (!canCompile(child, functions)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Profile {
+        final FunctionDefinitionStatement function;
+        int count;
+        boolean interpretOnly;
+        CatScriptProgram instance;
+        Method method;
+
+        Profile(FunctionDefinitionStatement function) {
+            this.function = function;
+        }
+
+        // ints and bools are passed and returned as int, bools as 0 or 1
+        void bind(CatScriptProgram compiled) throws NoSuchMethodException {
+            Class<?>[] parameterTypes = new Class<?>[function.getParameterCount()];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                CatscriptType type = function.getParameterType(i);
+                parameterTypes[i] = isInt(type) ? int.class : type.getJavaType();
+            }
+            method = compiled.getClass().getMethod(function.getName(), parameterTypes);
+            instance = compiled;
+        }
+
+        Object invokeCompiled(Object[] frame) {
+            Object[] arguments = new Object[function.getParameterCount()];
+            for (int i = 0; i < arguments.length; i++) {
+                if (function.getParameterType(i) == CatscriptType.BOOLEAN) {
+                    arguments[i] = (Boolean) frame[i] ? 1 : 0;
+                } else {
+                    arguments[i] = frame[i];
+                }
+            }
+            try {
+                Object result = method.invoke(instance, arguments);
+                if (function.getType() == CatscriptType.BOOLEAN) {
+                    return (Integer) result != 0;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                } else if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static boolean isInt(CatscriptType type) {
+            return type == CatscriptType.INT || type == CatscriptType.BOOLEAN;
+        }
+    }
+}
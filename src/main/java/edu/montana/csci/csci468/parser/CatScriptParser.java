@@ -9,6 +9,7 @@ import edu.montana.csci.csci468.tokenizer.TokenType;
 import org.slf4j.impl.StaticMarkerBinder;
 
 import javax.swing.plaf.nimbus.State;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -20,8 +21,17 @@ public class CatScriptParser {
     private TokenList tokens;
     private FunctionDefinitionStatement currentFunctionDefinition;
 
-    public CatScriptProgram parse(String source) {
-        tokens = new CatScriptTokenizer(source).getTokens();
+    public CatScriptProgram parse(CharSequence source) {
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
+
+    // tokens are scanned from the reader on demand as the parser advances
+    public CatScriptProgram parse(Reader source) {
+        return parse(new CatScriptTokenizer(source).getTokens());
+    }
+
+    public CatScriptProgram parse(TokenList tokenList) {
+        tokens = tokenList;
 
         // first parse an expression
         CatScriptProgram program = new CatScriptProgram();
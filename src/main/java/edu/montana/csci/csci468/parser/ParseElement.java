@@ -119,10 +119,18 @@ public abstract class ParseElement {
         if (collector.size() > 0) {
             throw new ParseErrorException(collector);
         }
+        resolve(new ScopeResolver());
     }
 
     public abstract void validate(SymbolTable symbolTable);
 
+    // assigns frame slots to variables once the tree is known to be valid
+    public void resolve(ScopeResolver resolver) {
+        for (ParseElement child : children) {
+            child.resolve(resolver);
+        }
+    }
+
     private void collectErrors(LinkedList<ParseError> collector, ParseElement parseElement){
         collector.addAll(parseElement.getErrors());
         for (ParseElement child : parseElement.getChildren()) {
@@ -26,10 +26,14 @@ public class ParseError {
         StringBuilder sb = new StringBuilder();
         String lineStart = "Line " + location.getLine() + ":";
         sb.append(lineStart);
-        sb.append(location.getLineContent());
-        sb.append("\n");
-        sb.append(" ".repeat(lineStart.length() + location.getLineOffset() - 1));
-        sb.append("^\n\n");
+        String lineContent = location.getLineContent();
+        if (lineContent != null) {
+            sb.append(lineContent);
+            sb.append("\n");
+            sb.append(" ".repeat(lineStart.length() + location.getLineOffset() - 1));
+            sb.append("^");
+        }
+        sb.append("\n\n");
         sb.append("Error: ");
         sb.append(message);
         return sb.toString();
@@ -0,0 +1,80 @@
+package edu.montana.csci.csci468.parser;
+
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+// Assigns every variable a slot in an array-backed frame.  The program has a global frame and
+// each function body gets its own, a variable is addressed by its frame depth (0 for the current
+// frame, 1 for the global frame) and its slot.  Slots of a block are reused once it closes
+public class ScopeResolver {
+
+    private final Frame global = new Frame();
+    private Frame current = global;
+
+    public void pushFrame() {
+        current = new Frame();
+    }
+
+    // returns the number of slots the frame needs
+    public int popFrame() {
+        int size = current.size;
+        current = global;
+        return size;
+    }
+
+    public int getGlobalFrameSize() {
+        return global.size;
+    }
+
+    public void pushScope() {
+        current.scopes.push(new HashMap<>());
+    }
+
+    public void popScope() {
+        Map<String, Integer> scope = current.scopes.pop();
+        current.next -= scope.size();
+    }
+
+    public int declare(String name) {
+        int slot = current.next++;
+        current.size = Math.max(current.size, current.next);
+        current.scopes.peek().put(name, slot);
+        return slot;
+    }
+
+    public int getDepth(String name) {
+        if (current.lookup(name) != null) {
+            return 0;
+        } else if (global.lookup(name) != null) {
+            return 1;
+        } else {
+            throw new IllegalStateException("Unresolved name " + name);
+        }
+    }
+
+    public int getSlot(String name) {
+        Integer slot = current.lookup(name);
+        return slot != null ? slot : global.lookup(name);
+    }
+
+    private static class Frame {
+        final LinkedList<Map<String, Integer>> scopes = new LinkedList<>();
+        int next = 0;
+        int size = 0;
+
+        Frame() {
+            scopes.push(new HashMap<>());
+        }
+
+        Integer lookup(String name) {
+            for (Map<String, Integer> scope : scopes) {
+                Integer slot = scope.get(name);
+                if (slot != null) {
+                    return slot;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -2,12 +2,16 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -79,23 +83,74 @@ public class AdditiveExpression extends Expression {
     // Implementation
     //==============================================================
 
+    // the node rewrites itself into one of these the first time it runs, validation already
+    // fixed the operand types so the choice never has to be undone
+    private enum Specialization { UNINITIALIZED, INT_ADD, INT_SUBTRACT, CONCAT }
+    private Specialization specialization = Specialization.UNINITIALIZED;
+
+    private Specialization specialize() {
+        if (specialization == Specialization.UNINITIALIZED) {
+            if (getType().equals(CatscriptType.STRING)) {
+                specialization = Specialization.CONCAT;
+            } else if (isAdd()) {
+                specialization = Specialization.INT_ADD;
+            } else {
+                specialization = Specialization.INT_SUBTRACT;
+            }
+        }
+        return specialization;
+    }
+
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        if(getType().equals(CatscriptType.STRING)){
+        if (specialize() == Specialization.CONCAT) {
             Object lhsValue = leftHandSide.evaluate(runtime);
             Object rhsValue = rightHandSide.evaluate(runtime);
             // taking string value.
             return String.valueOf(lhsValue) + rhsValue;
         } else {
-            Integer lhsValue = (Integer) leftHandSide.evaluate(runtime);
-            Integer rhsValue = (Integer) rightHandSide.evaluate(runtime);
-            //TODO handle string case
-            if (isAdd()) {
-                return lhsValue + rhsValue;
-            } else {
-                return lhsValue - rhsValue;
-            }
+            return evaluateInt(runtime);
+        }
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
+        if (specialize() == Specialization.INT_ADD) {
+            return lhsValue + rhsValue;
+        } else {
+            return lhsValue - rhsValue;
+        }
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledExpression lhs = leftHandSide.compileClosure(compiler);
+        CompiledExpression rhs = rightHandSide.compileClosure(compiler);
+        if (getType().equals(CatscriptType.STRING)) {
+            return runtime -> String.valueOf(lhs.evaluate(runtime)) + rhs.evaluate(runtime);
+        } else if (isAdd()) {
+            return runtime -> (Integer) lhs.evaluate(runtime) + (Integer) rhs.evaluate(runtime);
+        } else {
+            return runtime -> (Integer) lhs.evaluate(runtime) - (Integer) rhs.evaluate(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int lhs = leftHandSide.compileRegisters(code);
+        int rhs = rightHandSide.compileRegisters(code);
+        if (getType().equals(CatscriptType.STRING)) {
+            lhs = code.toObject(lhs, leftHandSide.getType());
+            rhs = code.toObject(rhs, rightHandSide.getType());
+            int result = code.allocateObject();
+            code.emit(Instructions.CONCAT, result, lhs, rhs);
+            return result;
         }
+        int result = code.allocateInt();
+        code.emit(isAdd() ? Instructions.ADD : Instructions.SUBTRACT, result, lhs, rhs);
+        return result;
     }
 
     @Override
@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 public class BooleanLiteralExpression extends Expression {
     private final boolean booleanValue;
@@ -34,6 +38,24 @@ public class BooleanLiteralExpression extends Expression {
         return getValue();
     }
 
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return booleanValue;
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        Boolean value = getValue();
+        return runtime -> value;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int result = code.allocateInt();
+        code.emit(Instructions.INT_CONST, result, getValue() ? 1 : 0);
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
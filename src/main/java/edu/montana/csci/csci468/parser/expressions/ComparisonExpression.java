@@ -2,11 +2,15 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -73,18 +77,57 @@ public class ComparisonExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object lhsValue = leftHandSide.evaluate(runtime);
-        Object rhsValue = rightHandSide.evaluate(runtime);
+        return evaluateBoolean(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        int lhsValue = leftHandSide.evaluateInt(runtime);
+        int rhsValue = rightHandSide.evaluateInt(runtime);
         // compare each values to each other.
         if (operator.getType().equals(GREATER)) {
-            return (Integer) lhsValue > (Integer) rhsValue;
+            return lhsValue > rhsValue;
+        } else if (operator.getType().equals(GREATER_EQUAL)) {
+            return lhsValue >= rhsValue;
+        } else if (operator.getType().equals(LESS)) {
+            return lhsValue < rhsValue;
+        } else {
+            return lhsValue <= rhsValue;
+        }
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledExpression lhs = leftHandSide.compileClosure(compiler);
+        CompiledExpression rhs = rightHandSide.compileClosure(compiler);
+        if (operator.getType().equals(GREATER)) {
+            return runtime -> (Integer) lhs.evaluate(runtime) > (Integer) rhs.evaluate(runtime);
+        } else if (operator.getType().equals(GREATER_EQUAL)) {
+            return runtime -> (Integer) lhs.evaluate(runtime) >= (Integer) rhs.evaluate(runtime);
+        } else if (operator.getType().equals(LESS)) {
+            return runtime -> (Integer) lhs.evaluate(runtime) < (Integer) rhs.evaluate(runtime);
+        } else {
+            return runtime -> (Integer) lhs.evaluate(runtime) <= (Integer) rhs.evaluate(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int lhs = leftHandSide.compileRegisters(code);
+        int rhs = rightHandSide.compileRegisters(code);
+        int instruction;
+        if (operator.getType().equals(GREATER)) {
+            instruction = Instructions.GREATER;
         } else if (operator.getType().equals(GREATER_EQUAL)) {
-            return (Integer) lhsValue >= (Integer) rhsValue;
+            instruction = Instructions.GREATER_EQUAL;
         } else if (operator.getType().equals(LESS)) {
-            return (Integer) lhsValue < (Integer) rhsValue;
+            instruction = Instructions.LESS;
         } else {
-            return (Integer) lhsValue <= (Integer) rhsValue;
+            instruction = Instructions.LESS_EQUAL;
         }
+        int result = code.allocateInt();
+        code.emit(instruction, result, lhs, rhs);
+        return result;
     }
 
     @Override
@@ -2,10 +2,14 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -44,6 +48,11 @@ public class EqualityExpression extends Expression {
         rightHandSide.validate(symbolTable);
     }
 
+    private boolean isPrimitiveComparison() {
+        CatscriptType type = leftHandSide.getType();
+        return RegisterCompiler.isInt(type) && type.equals(rightHandSide.getType());
+    }
+
     @Override
     public CatscriptType getType() {
         return CatscriptType.BOOLEAN;
@@ -55,14 +64,98 @@ public class EqualityExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
+        return evaluateBoolean(runtime);
+    }
+
+    // operands typed as int compare unboxed.  Untyped operands specialize on the values seen the
+    // first time the node runs, and fall back to GENERIC for good once a value breaks that guess
+    private enum Specialization { UNINITIALIZED, STATIC_INT, INT, BOOLEAN, GENERIC }
+    private Specialization specialization = Specialization.UNINITIALIZED;
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        if (specialization == Specialization.UNINITIALIZED &&
+                leftHandSide.getType().equals(CatscriptType.INT) && rightHandSide.getType().equals(CatscriptType.INT)) {
+            specialization = Specialization.STATIC_INT;
+        }
+        if (specialization == Specialization.STATIC_INT) {
+            int lhs = leftHandSide.evaluateInt(runtime);
+            int rhs = rightHandSide.evaluateInt(runtime);
+            return isEqual() == (lhs == rhs);
+        }
         Object lhsValue = leftHandSide.evaluate(runtime);
         Object rhsValue = rightHandSide.evaluate(runtime);
-        // check equal or not.
-        if (operator.getType().equals(TokenType.EQUAL_EQUAL)) {
-            return lhsValue == rhsValue;
+        boolean same;
+        switch (specialization) {
+            case UNINITIALIZED:
+                if (lhsValue instanceof Integer && rhsValue instanceof Integer) {
+                    specialization = Specialization.INT;
+                } else if (lhsValue instanceof Boolean && rhsValue instanceof Boolean) {
+                    specialization = Specialization.BOOLEAN;
+                } else {
+                    specialization = Specialization.GENERIC;
+                }
+                same = same(lhsValue, rhsValue);
+                break;
+            case INT:
+                if (lhsValue instanceof Integer && rhsValue instanceof Integer) {
+                    same = ((Integer) lhsValue).intValue() == ((Integer) rhsValue).intValue();
+                } else {
+                    specialization = Specialization.GENERIC;
+                    same = same(lhsValue, rhsValue);
+                }
+                break;
+            case BOOLEAN:
+                if (lhsValue instanceof Boolean && rhsValue instanceof Boolean) {
+                    same = ((Boolean) lhsValue).booleanValue() == ((Boolean) rhsValue).booleanValue();
+                } else {
+                    specialization = Specialization.GENERIC;
+                    same = same(lhsValue, rhsValue);
+                }
+                break;
+            default:
+                same = same(lhsValue, rhsValue);
+        }
+        return isEqual() == same;
+    }
+
+    // ints compare by value, everything else by reference
+    public static boolean same(Object lhsValue, Object rhsValue) {
+        if (lhsValue instanceof Integer && rhsValue instanceof Integer) {
+            return ((Integer) lhsValue).intValue() == ((Integer) rhsValue).intValue();
+        }
+        return lhsValue == rhsValue;
+    }
+
+    // two ints or two bools compare unboxed, anything else the way same() does
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledExpression lhs = leftHandSide.compileClosure(compiler);
+        CompiledExpression rhs = rightHandSide.compileClosure(compiler);
+        boolean equal = isEqual();
+        if (isPrimitiveComparison() && leftHandSide.getType().equals(CatscriptType.INT)) {
+            return runtime -> equal == (((Integer) lhs.evaluate(runtime)).intValue() == ((Integer) rhs.evaluate(runtime)).intValue());
+        } else if (isPrimitiveComparison()) {
+            return runtime -> equal == (((Boolean) lhs.evaluate(runtime)).booleanValue() == ((Boolean) rhs.evaluate(runtime)).booleanValue());
+        } else {
+            return runtime -> equal == same(lhs.evaluate(runtime), rhs.evaluate(runtime));
+        }
+    }
+
+    // two ints or two bools compare unboxed, anything else the way same() does
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int lhs = leftHandSide.compileRegisters(code);
+        int rhs = rightHandSide.compileRegisters(code);
+        int result = code.allocateInt();
+        if (isPrimitiveComparison()) {
+            code.emit(isEqual() ? Instructions.INT_EQUAL : Instructions.INT_NOT_EQUAL, result, lhs, rhs);
         } else {
-            return lhsValue != rhsValue;
+            lhs = code.toObject(lhs, leftHandSide.getType());
+            rhs = code.toObject(rhs, rightHandSide.getType());
+            code.emit(isEqual() ? Instructions.OBJECT_EQUAL : Instructions.OBJECT_NOT_EQUAL, result, lhs, rhs);
         }
+        return result;
     }
 
     @Override
@@ -77,15 +170,19 @@ public class EqualityExpression extends Expression {
         Label setAsFalse = new Label();
         Label setAsEnd = new Label();
 
-        leftHandSide.compile(code);
-        box(code, leftHandSide.getType());
-        rightHandSide.compile(code);
-        box(code, rightHandSide.getType());
-
-        if(isEqual()){
-            code.addJumpInstruction(Opcodes.IF_ACMPNE, setAsFalse);
+        // same() keeps compiled comparisons in line with the interpreter, boxed ints included
+        if (isPrimitiveComparison()) {
+            leftHandSide.compile(code);
+            rightHandSide.compile(code);
+            code.addJumpInstruction(isEqual() ? Opcodes.IF_ICMPNE : Opcodes.IF_ICMPEQ, setAsFalse);
         } else {
-            code.addJumpInstruction(Opcodes.IF_ACMPEQ, setAsFalse);
+            leftHandSide.compile(code);
+            box(code, leftHandSide.getType());
+            rightHandSide.compile(code);
+            box(code, rightHandSide.getType());
+            code.addMethodInstruction(Opcodes.INVOKESTATIC, ByteCodeGenerator.internalNameFor(EqualityExpression.class),
+                    "same", "(Ljava/lang/Object;Ljava/lang/Object;)Z");
+            code.addJumpInstruction(isEqual() ? Opcodes.IFEQ : Opcodes.IFNE, setAsFalse);
         }
 
         code.addInstruction(Opcodes.ICONST_1);
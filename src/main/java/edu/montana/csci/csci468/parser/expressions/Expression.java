@@ -2,8 +2,11 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 public abstract class Expression extends ParseElement {
 
@@ -11,6 +14,25 @@ public abstract class Expression extends ParseElement {
         throw new UnsupportedOperationException("evaluate needs to be implemented for " + this.getClass().getName());
     }
 
+    // primitive entry points for expressions whose static type is int or bool, overridden
+    // by nodes that can produce the value without boxing it
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return (Integer) evaluate(runtime);
+    }
+
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return (Boolean) evaluate(runtime);
+    }
+
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        throw new UnsupportedOperationException("compileClosure needs to be implemented for " + this.getClass().getName());
+    }
+
+    // returns the register holding the result, in the int file for int and bool expressions
+    public int compileRegisters(RegisterCompiler code) {
+        throw new UnsupportedOperationException("compileRegisters needs to be implemented for " + this.getClass().getName());
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         throw new UnsupportedOperationException("transpile needs to be implemented for " + this.getClass().getName());
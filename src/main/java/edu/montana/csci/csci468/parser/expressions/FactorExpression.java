@@ -2,12 +2,16 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 public class FactorExpression extends Expression {
@@ -62,19 +66,42 @@ public class FactorExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object rhsValue = rightHandSide.evaluate(runtime);
-        Object lhsValue = leftHandSide.evaluate(runtime);
-        int val;
+        return evaluateInt(runtime);
+    }
+
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        int rhsValue = rightHandSide.evaluateInt(runtime);
+        int lhsValue = leftHandSide.evaluateInt(runtime);
         // multiplication
         if (operator.getType().equals(TokenType.STAR)) {
-            val = (Integer) lhsValue * (Integer) rhsValue;
+            return lhsValue * rhsValue;
         }
         else {
             // division
-            val = (Integer) lhsValue / (Integer) rhsValue;
+            return lhsValue / rhsValue;
+        }
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledExpression lhs = leftHandSide.compileClosure(compiler);
+        CompiledExpression rhs = rightHandSide.compileClosure(compiler);
+        if (operator.getType().equals(TokenType.STAR)) {
+            return runtime -> (Integer) lhs.evaluate(runtime) * (Integer) rhs.evaluate(runtime);
+        } else {
+            return runtime -> (Integer) lhs.evaluate(runtime) / (Integer) rhs.evaluate(runtime);
         }
-        // return the result
-        return  val;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int lhs = leftHandSide.compileRegisters(code);
+        int rhs = rightHandSide.compileRegisters(code);
+        int result = code.allocateInt();
+        code.emit(operator.getType().equals(TokenType.STAR) ? Instructions.MULTIPLY : Instructions.DIVIDE,
+                result, lhs, rhs);
+        return result;
     }
 
     @Override
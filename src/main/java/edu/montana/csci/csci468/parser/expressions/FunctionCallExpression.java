@@ -2,14 +2,21 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledFunction;
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.eval.Profiler;
+import edu.montana.csci.csci468.eval.TieredEngine;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
-import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -17,6 +24,8 @@ public class FunctionCallExpression extends Expression {
     private final String name;
     List<Expression> arguments;
     private CatscriptType type;
+    // bound during validation, function definitions never change once a program is parsed
+    private FunctionDefinitionStatement function;
 
     public FunctionCallExpression(String functionName, List<Expression> arguments) {
         this.arguments = new LinkedList<>();
@@ -26,6 +35,11 @@ public class FunctionCallExpression extends Expression {
         this.name = functionName;
     }
 
+    // the definition this call was bound to during validation
+    public FunctionDefinitionStatement getFunction() {
+        return function;
+    }
+
     public List<Expression> getArguments() {
         return arguments;
     }
@@ -46,6 +60,7 @@ public class FunctionCallExpression extends Expression {
             addError(ErrorType.UNKNOWN_NAME);
             type = CatscriptType.OBJECT;
         } else {
+            this.function = function;
             type = function.getType();
             if (arguments.size() != function.getParameterCount()) {
                 addError(ErrorType.ARG_MISMATCH);
@@ -68,13 +83,84 @@ public class FunctionCallExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        // list of arguments
-        List<Object> args = new ArrayList<>();
+        // arguments are evaluated straight into the callee's frame
+        Object[] frame = function.newFrame();
+        int i = 0;
+        for (Expression argument : arguments) {
+            frame[i++] = argument.evaluate(runtime);
+        }
+        // promoted functions count their own calls and profile themselves
+        TieredEngine tiering = runtime.getTiering();
+        boolean compiled = tiering != null && tiering.callsCompiled(function);
+        ExecutionLimits limits = runtime.getLimits();
+        if (limits == null || compiled) {
+            return profile(runtime, frame, compiled);
+        }
+        limits.enterCall();
+        try {
+            return profile(runtime, frame, false);
+        } finally {
+            limits.exitCall();
+        }
+    }
+
+    private Object profile(CatscriptRuntime runtime, Object[] frame, boolean compiled) {
+        Profiler profiler = runtime.getProfiler();
+        if (profiler == null) {
+            return invoke(runtime, frame);
+        }
+        profiler.call(this);
+        if (compiled) {
+            return invoke(runtime, frame);
+        }
+        profiler.enter(function);
+        try {
+            return invoke(runtime, frame);
+        } finally {
+            profiler.exit(function);
+        }
+    }
+
+    private Object invoke(CatscriptRuntime runtime, Object[] frame) {
+        TieredEngine tiering = runtime.getTiering();
+        if (tiering != null) {
+            return tiering.invoke(runtime, function, frame);
+        }
+        return function.invoke(runtime, frame);
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledFunction compiledFunction = compiler.functionFor(function);
+        CompiledExpression[] compiledArguments = new CompiledExpression[arguments.size()];
+        int i = 0;
+        for (Expression argument : arguments) {
+            compiledArguments[i++] = argument.compileClosure(compiler);
+        }
+        return runtime -> {
+            Object[] frame = compiledFunction.newFrame();
+            for (int j = 0; j < compiledArguments.length; j++) {
+                frame[j] = compiledArguments[j].evaluate(runtime);
+            }
+            return compiledFunction.invoke(runtime, frame);
+        };
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int[] call = new int[4 + arguments.size()];
+        call[0] = Instructions.CALL;
+        call[2] = code.functionIndex(function);
+        call[3] = arguments.size();
+        int i = 0;
         for (Expression argument : arguments) {
-            args.add(argument.evaluate(runtime));
+            int register = argument.compileRegisters(code);
+            call[4 + i] = code.convert(register, argument.getType(), function.getParameterType(i));
+            i++;
         }
-        FunctionDefinitionStatement function = getProgram().getFunction(name);
-        return function.invoke(runtime, args);
+        call[1] = code.allocate(function.getType());
+        code.emit(call);
+        return call[1];
     }
 
     @Override
@@ -84,8 +170,9 @@ public class FunctionCallExpression extends Expression {
 
       @Override
     public void compile(ByteCodeGenerator code) {
+        code.profile("call", this);
         code.addVarInstruction(Opcodes.ALOAD, 0);
-        FunctionDefinitionStatement functionDefinitionStatement = getProgram().getFunction(name);
+        FunctionDefinitionStatement functionDefinitionStatement = function;
         for (Expression argument : getArguments()) {
             // boolean types for arguments
             boolean isTypeInt = argument.getType().equals(CatscriptType.INT);
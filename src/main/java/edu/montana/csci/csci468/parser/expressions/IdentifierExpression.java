@@ -2,12 +2,17 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.statements.FunctionCallStatement;
 import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -15,6 +20,8 @@ import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFo
 public class IdentifierExpression extends Expression {
     private final String name;
     private CatscriptType type;
+    private int depth;
+    private int slot;
 
     public IdentifierExpression(String value) {
         this.name = value;
@@ -39,14 +46,45 @@ public class IdentifierExpression extends Expression {
         }
     }
 
+    // read out of the global frame from inside a function
+    public boolean isGlobal() {
+        return depth != 0;
+    }
+
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        depth = resolver.getDepth(name);
+        slot = resolver.getSlot(name);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        // return the name of the identifier.
-        return runtime.getValue(name);
+        return runtime.getValue(depth, slot);
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        int slot = this.slot;
+        if (depth == 0) {
+            return runtime -> runtime.getValue(0, slot);
+        } else {
+            return runtime -> runtime.getValue(1, slot);
+        }
+    }
+
+    // locals are read straight out of their register, globals are copied in from the top frame
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        if (depth == 0) {
+            return slot;
+        }
+        int result = code.allocate(type);
+        code.emit(RegisterCompiler.isInt(type) ? Instructions.INT_GLOBAL : Instructions.OBJECT_GLOBAL, result, slot);
+        return result;
     }
 
     @Override
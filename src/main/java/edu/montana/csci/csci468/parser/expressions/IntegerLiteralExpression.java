@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 public class IntegerLiteralExpression extends Expression {
     private final int integerVal;
@@ -39,6 +43,24 @@ public class IntegerLiteralExpression extends Expression {
         return integerVal;
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return integerVal;
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        Integer value = integerVal;
+        return runtime -> value;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int result = code.allocateInt();
+        code.emit(Instructions.INT_CONST, result, integerVal);
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append(integerVal);
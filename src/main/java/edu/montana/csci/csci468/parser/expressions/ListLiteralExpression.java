@@ -2,8 +2,13 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.ExecutionLimits;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
@@ -52,6 +57,10 @@ public class ListLiteralExpression extends Expression {
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
         // list of values
+        ExecutionLimits limits = runtime.getLimits();
+        if (limits != null) {
+            limits.allocateList(values.size());
+        }
         List<Object> evalList = new ArrayList<>();
         for (Expression value : values) {
             evalList.add(value.evaluate(runtime));
@@ -59,6 +68,34 @@ public class ListLiteralExpression extends Expression {
         return evalList;
     }
 
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledExpression[] compiledValues = new CompiledExpression[values.size()];
+        int i = 0;
+        for (Expression value : values) {
+            compiledValues[i++] = value.compileClosure(compiler);
+        }
+        return runtime -> {
+            List<Object> list = new ArrayList<>(compiledValues.length);
+            for (CompiledExpression value : compiledValues) {
+                list.add(value.evaluate(runtime));
+            }
+            return list;
+        };
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int first = code.allocateObjects(values.size());
+        int i = 0;
+        for (Expression value : values) {
+            code.move(first + i++, value.compileRegisters(code), value.getType(), CatscriptType.OBJECT);
+        }
+        int result = code.allocateObject();
+        code.emit(Instructions.NEW_LIST, result, first, values.size());
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -67,6 +104,7 @@ public class ListLiteralExpression extends Expression {
     @Override
     public void compile(ByteCodeGenerator code) {
 //        super.compile(code);
+        code.limit("allocateList", values.size());
         code.addTypeInstruction(Opcodes.NEW,
                 internalNameFor(LinkedList.class));
         code.addInstruction(Opcodes.DUP);
@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 public class NullLiteralExpression extends Expression {
@@ -26,6 +30,18 @@ public class NullLiteralExpression extends Expression {
         return null;
     }
 
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        return runtime -> null;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int result = code.allocateObject();
+        code.emit(Instructions.OBJECT_CONST, result, code.constant(null));
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
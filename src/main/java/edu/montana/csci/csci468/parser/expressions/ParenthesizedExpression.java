@@ -2,10 +2,14 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 import java.awt.*;
 
@@ -40,6 +44,26 @@ public class ParenthesizedExpression extends Expression {
         return expression.evaluate(runtime);
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return expression.evaluateInt(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return expression.evaluateBoolean(runtime);
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        return expression.compileClosure(compiler);
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        return expression.compileRegisters(code);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         javascript.append("(");
@@ -2,8 +2,12 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.SymbolTable;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 public class StringLiteralExpression extends Expression {
     private final String stringValue;
@@ -34,6 +38,19 @@ public class StringLiteralExpression extends Expression {
         return getValue();
     }
 
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        String value = getValue();
+        return runtime -> value;
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int result = code.allocateObject();
+        code.emit(Instructions.OBJECT_CONST, result, code.constant(getValue()));
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,12 +2,16 @@ package edu.montana.csci.csci468.parser.expressions;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 public class UnaryExpression extends Expression {
@@ -62,15 +66,41 @@ public class UnaryExpression extends Expression {
 
     @Override
     public Object evaluate(CatscriptRuntime runtime) {
-        Object rhsValue = getRightHandSide().evaluate(runtime);
         if (this.isMinus()) {
-            return -1 * (Integer) rhsValue;
+            return evaluateInt(runtime);
         } else {
-            // TODO handle boolean NOT
-            return ! (Boolean) rhsValue;
+            return evaluateBoolean(runtime);
         }
     }
 
+    @Override
+    public int evaluateInt(CatscriptRuntime runtime) {
+        return -getRightHandSide().evaluateInt(runtime);
+    }
+
+    @Override
+    public boolean evaluateBoolean(CatscriptRuntime runtime) {
+        return !getRightHandSide().evaluateBoolean(runtime);
+    }
+
+    @Override
+    public CompiledExpression compileClosure(ClosureCompiler compiler) {
+        CompiledExpression rhs = getRightHandSide().compileClosure(compiler);
+        if (isMinus()) {
+            return runtime -> -(Integer) rhs.evaluate(runtime);
+        } else {
+            return runtime -> !(Boolean) rhs.evaluate(runtime);
+        }
+    }
+
+    @Override
+    public int compileRegisters(RegisterCompiler code) {
+        int rhs = getRightHandSide().compileRegisters(code);
+        int result = code.allocateInt();
+        code.emit(isMinus() ? Instructions.NEGATE : Instructions.NOT, result, rhs);
+        return result;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,15 +2,25 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import org.objectweb.asm.Opcodes;
 
 public class AssignmentStatement extends Statement {
     private Expression expression;
     private String variableName;
+    private CatscriptType type;
+    private int depth;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
@@ -28,25 +38,60 @@ public class AssignmentStatement extends Statement {
         this.variableName = variableName;
     }
 
+    public boolean isGlobal() {
+        return depth != 0;
+    }
+
     @Override
     public void validate(SymbolTable symbolTable) {
         expression.validate(symbolTable);
-        CatscriptType symbolType = symbolTable.getSymbolType(getVariableName());
-        if (symbolType == null) {
+        type = symbolTable.getSymbolType(getVariableName());
+        if (type == null) {
             addError(ErrorType.UNKNOWN_NAME);
         }
         // If they are not compatible then Add incompatible types error.
-        else if (!symbolTable.getSymbolType(variableName).isAssignableFrom(expression.getType())) {
+        else if (!type.isAssignableFrom(expression.getType())) {
             addError(ErrorType.INCOMPATIBLE_TYPES);
         }
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        depth = resolver.getDepth(variableName);
+        slot = resolver.getSlot(variableName);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        super.execute(runtime);
+        runtime.setValue(depth, slot, expression.evaluate(runtime));
+    }
+
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        CompiledExpression compiledExpression = expression.compileClosure(compiler);
+        int depth = this.depth == 0 ? 0 : 1;
+        int slot = this.slot;
+        return runtime -> runtime.setValue(depth, slot, compiledExpression.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int value = expression.compileRegisters(code);
+        if (depth == 0) {
+            code.move(slot, value, expression.getType(), type);
+            return;
+        }
+        // globals are only stored from a register of their own kind
+        if (RegisterCompiler.isInt(type) != RegisterCompiler.isInt(expression.getType())) {
+            int converted = code.allocate(type);
+            code.move(converted, value, expression.getType(), type);
+            value = converted;
+        }
+        code.emit(RegisterCompiler.isInt(type) ? Instructions.INT_SET_GLOBAL : Instructions.OBJECT_SET_GLOBAL, slot, value);
     }
 
     @Override
@@ -56,6 +101,24 @@ public class AssignmentStatement extends Statement {
 
     @Override
     public void compile(ByteCodeGenerator code) {
-        super.compile(code);
+        boolean intOrBoolType = type.equals(CatscriptType.INT) || type.equals(CatscriptType.BOOLEAN);
+        Integer localStorageSlot = code.resolveLocalStorageSlotFor(variableName);
+        if (localStorageSlot != null) {
+            compileValue(code, intOrBoolType);
+            code.addVarInstruction(intOrBoolType ? Opcodes.ISTORE : Opcodes.ASTORE, localStorageSlot);
+        } else {
+            code.addVarInstruction(Opcodes.ALOAD, 0);
+            compileValue(code, intOrBoolType);
+            String descriptor = intOrBoolType ? "I" : "L" + ByteCodeGenerator.internalNameFor(type.getJavaType()) + ";";
+            code.addFieldInstruction(Opcodes.PUTFIELD, variableName, descriptor, code.getProgramInternalName());
+        }
+    }
+
+    // an int or bool stored into an object variable is boxed first
+    private void compileValue(ByteCodeGenerator code, boolean intOrBoolType) {
+        expression.compile(code);
+        if (!intOrBoolType) {
+            box(code, expression.getType());
+        }
     }
 }
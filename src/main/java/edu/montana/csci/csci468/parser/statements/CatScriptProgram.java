@@ -2,9 +2,18 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.eval.Profiler;
 import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import java.util.HashMap;
@@ -20,6 +29,12 @@ public class CatScriptProgram extends Statement {
     private List<Statement> statements = new LinkedList<>();
     private Map<String, FunctionDefinitionStatement> functions = new HashMap<>();
     private Expression expression;
+    private int globalFrameSize;
+    private Profiler profiler;
+    private ExecutionLimits limits;
+
+    // parse nodes per top level method, a few bytes of bytecode each
+    private static final int CHUNK_NODES = 200;
 
     public void print(Object v) {
         output.append(v).append("\n");
@@ -29,6 +44,11 @@ public class CatScriptProgram extends Statement {
         return output.toString();
     }
 
+    // prints into another program's output, for code compiled separately from it
+    public void shareOutputWith(CatScriptProgram program) {
+        output = program.output;
+    }
+
     public void addStatement(Statement child) {
         Statement statement = addChild(child);
         statements.add(statement);
@@ -54,6 +74,10 @@ public class CatScriptProgram extends Statement {
         return expression != null;
     }
 
+    public int getGlobalFrameSize() {
+        return globalFrameSize;
+    }
+
     public FunctionDefinitionStatement getFunction(String name) {
         return functions.get(name);
     }
@@ -69,8 +93,43 @@ public class CatScriptProgram extends Statement {
         }
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        super.resolve(resolver);
+        globalFrameSize = resolver.getGlobalFrameSize();
+    }
+
+    public Profiler getProfiler() {
+        return profiler;
+    }
+
+    // profiles the program when it's executed, or compiled code when it's compiled
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public ExecutionLimits getLimits() {
+        return limits;
+    }
+
+    // enforced when the program is executed, or by compiled code when it's compiled
+    public void setLimits(ExecutionLimits limits) {
+        this.limits = limits;
+    }
+
     public void execute() {
-        execute(new CatscriptRuntime());
+        execute(newRuntime());
+    }
+
+    // a runtime carrying this program's profiler and limits
+    public CatscriptRuntime newRuntime() {
+        CatscriptRuntime runtime = new CatscriptRuntime();
+        runtime.setProfiler(profiler);
+        runtime.setLimits(limits);
+        if (limits != null) {
+            limits.start();
+        }
+        return runtime;
     }
 
     //==============================================================
@@ -78,6 +137,7 @@ public class CatScriptProgram extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
+        runtime.allocateGlobals(globalFrameSize);
         // check expression runtime if it exists.
         if (expression != null) {
             print(expression.evaluate(runtime));
@@ -88,6 +148,35 @@ public class CatScriptProgram extends Statement {
         }
     }
 
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        if (isExpression()) {
+            CompiledExpression compiledExpression = expression.compileClosure(compiler);
+            CatScriptProgram program = compiler.getProgram();
+            return runtime -> program.print(compiledExpression.evaluate(runtime));
+        } else {
+            return compiler.compileStatements(statements);
+        }
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        if (isExpression()) {
+            int value = expression.compileRegisters(code);
+            code.emit(Instructions.PRINT, code.toObject(value, expression.getType()));
+        } else {
+            code.compileStatements(statements);
+        }
+    }
+
+    private static int countNodes(ParseElement element) {
+        int count = 1;
+        for (ParseElement child : element.getChildren()) {
+            count += countNodes(child);
+        }
+        return count;
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         if (isExpression()) {
@@ -111,8 +200,36 @@ public class CatScriptProgram extends Statement {
                     "print", "(Ljava/lang/Object;)V");
             code.addInstruction(Opcodes.RETURN);
         } else {
+            // top level statements only share state through fields, so runs of them go into
+            // their own methods, small enough for the JIT to compile and inline
+            int chunk = 0;
+            int chunkSize = 0;
+            boolean inChunk = false;
             for (Statement statement : statements) {
+                if (statement instanceof FunctionDefinitionStatement) {
+                    // compiles to a method of its own
+                    statement.compile(code);
+                    continue;
+                }
+                if (!inChunk) {
+                    String name = "execute$" + chunk++;
+                    code.addVarInstruction(Opcodes.ALOAD, 0);
+                    code.addMethodInstruction(Opcodes.INVOKESPECIAL, code.getProgramInternalName(), name, "()V");
+                    code.pushMethod(Opcodes.ACC_PRIVATE, name, "()V");
+                    inChunk = true;
+                    chunkSize = 0;
+                }
                 statement.compile(code);
+                chunkSize += countNodes(statement);
+                if (chunkSize >= CHUNK_NODES) {
+                    code.addInstruction(Opcodes.RETURN);
+                    code.popMethod();
+                    inChunk = false;
+                }
+            }
+            if (inChunk) {
+                code.addInstruction(Opcodes.RETURN);
+                code.popMethod();
             }
             code.addInstruction(Opcodes.RETURN);
         }
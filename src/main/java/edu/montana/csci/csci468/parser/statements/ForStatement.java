@@ -2,11 +2,20 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.eval.Profiler;
+import edu.montana.csci.csci468.eval.TieredEngine;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import org.objectweb.asm.Label;
@@ -18,6 +27,7 @@ public class ForStatement extends Statement {
     private Expression expression;
     private String variableName;
     private List<Statement> body;
+    private int slot;
 
     public void setExpression(Expression expression) {
         this.expression = addChild(expression);
@@ -71,20 +81,77 @@ public class ForStatement extends Statement {
         return ((CatscriptType.ListType) expression.getType()).getComponentType();
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        resolver.pushScope();
+        slot = resolver.declare(variableName);
+        for (Statement statement : body) {
+            statement.resolve(resolver);
+        }
+        resolver.popScope();
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
         // loop through and execute the body statements.
+        TieredEngine tiering = runtime.getTiering();
+        Profiler profiler = runtime.getProfiler();
+        ExecutionLimits limits = runtime.getLimits();
         for (Object var : (List<Object>) expression.evaluate(runtime)) {
-            runtime.setValue(variableName, var);
+            if (limits != null) {
+                limits.step();
+            }
+            if (tiering != null) {
+                tiering.backEdge();
+            }
+            if (profiler != null) {
+                profiler.iteration(this);
+            }
+            runtime.setValue(slot, var);
             for (Statement bodyStatement : body) {
                 bodyStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
             }
         }
     }
 
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        CompiledExpression compiledExpression = expression.compileClosure(compiler);
+        CompiledStatement compiledBody = compiler.compileStatements(body);
+        int slot = this.slot;
+        return runtime -> {
+            for (Object var : (List<Object>) compiledExpression.evaluate(runtime)) {
+                runtime.setValue(slot, var);
+                compiledBody.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
+            }
+        };
+    }
+
+    // the iterator register is allocated before the body, so the body's temporaries sit above it
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int list = expression.compileRegisters(code);
+        int iterator = code.allocateObject();
+        int next = code.allocateObject();
+        code.emit(Instructions.ITERATOR, iterator, list);
+        int loop = code.position();
+        int toEnd = code.emitJump(Instructions.NEXT_OR_JUMP, next, iterator, -1);
+        code.move(slot, next, CatscriptType.OBJECT, getComponentType());
+        code.compileStatements(body);
+        code.emit(Instructions.JUMP, loop);
+        code.patch(toEnd);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -93,6 +160,7 @@ public class ForStatement extends Statement {
     @Override
     public void compile(ByteCodeGenerator code) {
 //        super.compile(code);
+        code.pushScope();
         Integer iteratorSlot = code.nextLocalStorageSlot();
 
         Label iterationStart = new Label();
@@ -128,11 +196,14 @@ public class ForStatement extends Statement {
          } else {
              code.addVarInstruction(Opcodes.ASTORE, LocalStorageSlotFor);
          }
+         code.profile("iteration", this);
+         code.limit("step");
          for(Statement bodyStatement: body){
              bodyStatement.compile(code);
          }
          code.addJumpInstruction(Opcodes.GOTO, iterationStart);
          code.addLabel(setAsEnd);
+         code.popScope();
     }
 
 }
@@ -2,9 +2,14 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
 import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 import java.util.List;
 
@@ -37,6 +42,17 @@ public class FunctionCallStatement extends Statement {
         expression.evaluate(runtime);
     }
 
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        CompiledExpression call = expression.compileClosure(compiler);
+        return call::evaluate;
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        expression.compileRegisters(code);
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,11 +2,16 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.eval.ReturnException;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.TypeLiteral;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
+import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
 import java.util.ArrayList;
@@ -21,6 +26,7 @@ public class FunctionDefinitionStatement extends Statement {
     private List<CatscriptType> argumentTypes = new ArrayList<>();
     private List<String> argumentNames = new ArrayList<>();
     private LinkedList<Statement> body;
+    private int frameSize;
 
     public void setName(String name) {
         this.name = name;
@@ -121,23 +127,41 @@ public class FunctionDefinitionStatement extends Statement {
         return false;
     }
 
-    public Object invoke(CatscriptRuntime runtime, List<Object> args) {
-        runtime.pushScope();
-        int parameterCount = getParameterCount();
-        for (int i = 0; i < parameterCount; i++) {
-            runtime.setValue(getParameterName(i), args.get(i));
+    // parameters take the first slots of the function's frame
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        resolver.pushFrame();
+        for (String argumentName : argumentNames) {
+            resolver.declare(argumentName);
+        }
+        for (Statement statement : body) {
+            statement.resolve(resolver);
         }
-        Object returnVal = null;
+        frameSize = resolver.popFrame();
+    }
+
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public Object[] newFrame() {
+        return new Object[frameSize];
+    }
+
+    // the frame comes from newFrame with the arguments already in the parameter slots
+    public Object invoke(CatscriptRuntime runtime, Object[] frame) {
+        Object[] caller = runtime.pushFrame(frame);
         try {
             for (Statement statement : body) {
                 statement.execute(runtime);
+                if (runtime.isReturning()) {
+                    break;
+                }
             }
-        } catch (ReturnException re) {
-            returnVal = re.getValue();
         } finally {
-            runtime.popScope();
+            runtime.popFrame(caller);
         }
-        return returnVal;
+        return runtime.takeReturnValue();
     }
 
     public String getDescriptor() {
@@ -146,7 +170,7 @@ public class FunctionDefinitionStatement extends Statement {
             if (argumentType.equals(CatscriptType.BOOLEAN) || argumentType.equals(CatscriptType.INT)) {
                 sb.append("I");
             } else {
-                sb.append("L").append(internalNameFor(getType().getJavaType())).append(";");
+                sb.append("L").append(internalNameFor(argumentType.getJavaType())).append(";");
             }
         }
         sb.append(")");
@@ -171,6 +195,17 @@ public class FunctionDefinitionStatement extends Statement {
         // super.execute(runtime);
     }
 
+    // functions are compiled when a call site first refers to them
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        return null;
+    }
+
+    // compiled when a call site first refers to them
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -180,6 +215,18 @@ public class FunctionDefinitionStatement extends Statement {
     public void compile(ByteCodeGenerator code) {
 //        super.compile(code);
         code.pushMethod(Opcodes.ACC_PUBLIC, getName(), getDescriptor());
+        code.profile("enter", this);
+        code.limit("enterCall");
+
+        // when profiled or limited, an exception leaving the body still exits the function, so
+        // the profiler's stack and the call depth stay balanced
+        Label bodyStart = new Label();
+        Label bodyEnd = new Label();
+        Label exceptionExit = new Label();
+        if (code.isProfiling() || code.isLimited()) {
+            code.addFinallyBlock(bodyStart, bodyEnd, exceptionExit);
+        }
+        code.addLabel(bodyStart);
 
         boolean isTypeInt = getType().equals(CatscriptType.INT);
         boolean isTypeBoolean = getType().equals(CatscriptType.BOOLEAN);
@@ -199,6 +246,8 @@ public class FunctionDefinitionStatement extends Statement {
             bodyStatement.compile(code);
         }
 
+        code.profile("exit", this);
+        code.limit("exitCall");
 
         if(intOrBoolType) {
             code.addInstruction(Opcodes.IRETURN);
@@ -207,6 +256,14 @@ public class FunctionDefinitionStatement extends Statement {
         } else {
             code.addInstruction(Opcodes.RETURN);
         }
+        code.addLabel(bodyEnd);
+
+        if (code.isProfiling() || code.isLimited()) {
+            code.addLabel(exceptionExit);
+            code.profile("exit", this);
+            code.limit("exitCall");
+            code.addInstruction(Opcodes.ATHROW);
+        }
 
         code.popMethod();
     }
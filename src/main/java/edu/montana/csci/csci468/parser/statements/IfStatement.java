@@ -2,11 +2,18 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
+import edu.montana.csci.csci468.eval.Profiler;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
 
@@ -67,21 +74,76 @@ public class IfStatement extends Statement {
         symbolTable.popScope();
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        resolver.pushScope();
+        for (Statement trueStatement : trueStatements) {
+            trueStatement.resolve(resolver);
+        }
+        resolver.popScope();
+        resolver.pushScope();
+        for (Statement elseStatement : elseStatements) {
+            elseStatement.resolve(resolver);
+        }
+        resolver.popScope();
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
         // run true conditions in if statements
-        if (expression.evaluate(runtime).equals(true)) {
+        boolean condition = expression.evaluateBoolean(runtime);
+        Profiler profiler = runtime.getProfiler();
+        if (profiler != null) {
+            profiler.branch(this, condition);
+        }
+        if (condition) {
             for (Statement trueStatement : trueStatements) {
                 trueStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
             }
             // if no true statements execute the else statements.
         } else {
             for (Statement elseStatement : elseStatements) {
                 elseStatement.execute(runtime);
+                if (runtime.isReturning()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        CompiledExpression condition = expression.compileClosure(compiler);
+        CompiledStatement whenTrue = compiler.compileStatements(trueStatements);
+        CompiledStatement whenFalse = compiler.compileStatements(elseStatements);
+        return runtime -> {
+            if ((Boolean) condition.evaluate(runtime)) {
+                whenTrue.execute(runtime);
+            } else {
+                whenFalse.execute(runtime);
             }
+        };
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int condition = expression.compileRegisters(code);
+        int toElse = code.emitJump(Instructions.JUMP_IF_FALSE, condition, -1);
+        code.compileStatements(trueStatements);
+        if (elseStatements.isEmpty()) {
+            code.patch(toElse);
+        } else {
+            int toEnd = code.emitJump(Instructions.JUMP, -1);
+            code.patch(toElse);
+            code.compileStatements(elseStatements);
+            code.patch(toEnd);
         }
     }
 
@@ -97,23 +159,23 @@ public class IfStatement extends Statement {
         Label setAsEnd = new Label();
         Label elseLabel = new Label();
 
-        if(elseStatements.size() > 0){
-            code.addJumpInstruction(Opcodes.IFEQ, elseLabel);
-        } else {
-            code.addJumpInstruction(Opcodes.IFEQ, setAsEnd);
-        }
+        code.addJumpInstruction(Opcodes.IFEQ, elseLabel);
 
+        code.profile("taken", this);
+        code.pushScope();
         for(Statement trueStatement : trueStatements){
             trueStatement.compile(code);
         }
+        code.popScope();
 
         code.addJumpInstruction(Opcodes.GOTO, setAsEnd);
-        if(elseStatements.size() > 0) {
-            code.addLabel(elseLabel);
-            for (Statement elseStatement : elseStatements) {
-                elseStatement.compile(code);
-            }
+        code.addLabel(elseLabel);
+        code.profile("notTaken", this);
+        code.pushScope();
+        for (Statement elseStatement : elseStatements) {
+            elseStatement.compile(code);
         }
+        code.popScope();
         code.addLabel(setAsEnd);
 
     }
@@ -2,8 +2,13 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 import static edu.montana.csci.csci468.bytecode.ByteCodeGenerator.internalNameFor;
@@ -34,6 +39,19 @@ public class PrintStatement extends Statement {
         getProgram().print(printValue);
     }
 
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        CompiledExpression compiledExpression = expression.compileClosure(compiler);
+        CatScriptProgram program = compiler.getProgram();
+        return runtime -> program.print(compiledExpression.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int value = expression.compileRegisters(code);
+        code.emit(Instructions.PRINT, code.toObject(value, expression.getType()));
+    }
+
     @Override
     public void transpile(StringBuilder javascript) {
         super.transpile(javascript);
@@ -2,12 +2,16 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
-import edu.montana.csci.csci468.eval.ReturnException;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 public class ReturnStatement extends Statement {
@@ -45,8 +49,27 @@ public class ReturnStatement extends Statement {
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
-        Object returnValue = expression.evaluate(runtime);
-        throw new ReturnException(returnValue);
+        runtime.setReturn(expression == null ? null : expression.evaluate(runtime));
+    }
+
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        if (expression == null) {
+            return runtime -> runtime.setReturn(null);
+        }
+        CompiledExpression compiledExpression = expression.compileClosure(compiler);
+        return runtime -> runtime.setReturn(compiledExpression.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        CatscriptType type = function.getType();
+        if (expression == null) {
+            code.emit(Instructions.RETURN_VOID);
+        } else {
+            int value = code.convert(expression.compileRegisters(code), expression.getType(), type);
+            code.emit(RegisterCompiler.isInt(type) ? Instructions.RETURN_INT : Instructions.RETURN_OBJECT, value);
+        }
     }
 
     @Override
@@ -56,6 +79,12 @@ public class ReturnStatement extends Statement {
 
     @Override
     public void compile(ByteCodeGenerator code) {
+        if (expression == null) {
+            code.profile("exit", function);
+            code.limit("exitCall");
+            code.addInstruction(Opcodes.RETURN);
+            return;
+        }
         expression.compile(code);
         boolean isTypeInt = function.getType().equals(CatscriptType.INT);
         boolean isTypeBoolean = function.getType().equals(CatscriptType.BOOLEAN);
@@ -67,6 +96,8 @@ public class ReturnStatement extends Statement {
             box(code, expression.getType());
         }
 
+        code.profile("exit", function);
+        code.limit("exitCall");
         if(intOrBoolType) {
             code.addInstruction(Opcodes.IRETURN);
         } else if(!isVoid) {
@@ -2,7 +2,10 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.ParseElement;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 public abstract class Statement extends ParseElement {
 
@@ -10,4 +13,12 @@ public abstract class Statement extends ParseElement {
         throw new UnsupportedOperationException("execute needs to be implemented for " + this.getClass().getName());
     }
 
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        throw new UnsupportedOperationException("compileClosure needs to be implemented for " + this.getClass().getName());
+    }
+
+    public void compileRegisters(RegisterCompiler code) {
+        throw new UnsupportedOperationException("compileRegisters needs to be implemented for " + this.getClass().getName());
+    }
+
 }
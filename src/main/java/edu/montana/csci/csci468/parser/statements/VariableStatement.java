@@ -2,11 +2,17 @@ package edu.montana.csci.csci468.parser.statements;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
+import edu.montana.csci.csci468.eval.CompiledExpression;
+import edu.montana.csci.csci468.eval.CompiledStatement;
 import edu.montana.csci.csci468.parser.CatscriptType;
 import edu.montana.csci.csci468.parser.ErrorType;
 import edu.montana.csci.csci468.parser.ParseError;
+import edu.montana.csci.csci468.parser.ScopeResolver;
 import edu.montana.csci.csci468.parser.SymbolTable;
 import edu.montana.csci.csci468.parser.expressions.Expression;
+import edu.montana.csci.csci468.vm.Instructions;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 import org.objectweb.asm.Opcodes;
 
 public class VariableStatement extends Statement {
@@ -14,6 +20,7 @@ public class VariableStatement extends Statement {
     private String variableName;
     private CatscriptType explicitType;
     private CatscriptType type;
+    private int slot;
 
     public Expression getExpression() {
         return expression;
@@ -68,13 +75,32 @@ public class VariableStatement extends Statement {
         return type;
     }
 
+    @Override
+    public void resolve(ScopeResolver resolver) {
+        expression.resolve(resolver);
+        slot = resolver.declare(variableName);
+    }
+
     //==============================================================
     // Implementation
     //==============================================================
     @Override
     public void execute(CatscriptRuntime runtime) {
         Object variableValue = expression.evaluate(runtime);
-        runtime.setValue(variableName, variableValue);
+        runtime.setValue(slot, variableValue);
+    }
+
+    @Override
+    public CompiledStatement compileClosure(ClosureCompiler compiler) {
+        CompiledExpression compiledExpression = expression.compileClosure(compiler);
+        int slot = this.slot;
+        return runtime -> runtime.setValue(slot, compiledExpression.evaluate(runtime));
+    }
+
+    @Override
+    public void compileRegisters(RegisterCompiler code) {
+        int value = expression.compileRegisters(code);
+        code.move(slot, value, expression.getType(), getType());
     }
 
     @Override
@@ -98,6 +124,7 @@ public class VariableStatement extends Statement {
             } else {
                 code.addVarInstruction(Opcodes.ALOAD, 0);
                 expression.compile(code);
+                box(code, expression.getType());
                 descriptorString = "L" + ByteCodeGenerator.internalNameFor(getType().getJavaType())+";";
             }
             code.addField(variableName, descriptorString);
@@ -108,6 +135,7 @@ public class VariableStatement extends Statement {
             if(intOrBoolType){
                 code.addVarInstruction(Opcodes.ISTORE, localStorageSlotFor);
             } else {
+                box(code, expression.getType());
                 code.addVarInstruction(Opcodes.ASTORE, localStorageSlotFor);
             }
         }
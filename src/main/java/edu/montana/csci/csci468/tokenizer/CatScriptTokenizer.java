@@ -1,28 +1,240 @@
 package edu.montana.csci.csci468.tokenizer;
 
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 
 public class CatScriptTokenizer {
 
+    static final int PARALLEL_CHUNK_SIZE = 1 << 16;
+
+    TokenBuffer tokenBuffer;
     TokenList tokenList;
-    String src;
+    CharSequence src;
+    StreamingSource stream;
+    boolean finished = false;
+    int limit;
     int postion = 0;
     int line = 1;
     int lineOffset = 0;
 
     public CatScriptTokenizer(String source) {
+        this((CharSequence) source);
+    }
+
+    public CatScriptTokenizer(char[] source) {
+        this(CharBuffer.wrap(source));
+    }
+
+    public CatScriptTokenizer(CharSequence source) {
+        src = source;
+        limit = source.length();
+        tokenBuffer = new TokenBuffer(source);
+        tokenize();
+    }
+
+    // tokenizes chunks of a large source on the given pool and stitches the results together
+    public CatScriptTokenizer(CharSequence source, ForkJoinPool pool) {
+        this(source, pool, PARALLEL_CHUNK_SIZE);
+    }
+
+    CatScriptTokenizer(CharSequence source, ForkJoinPool pool, int chunkSize) {
+        src = source;
+        limit = source.length();
+        tokenBuffer = new TokenBuffer(source);
+        List<int[]> chunks = splitChunks(source, chunkSize);
+        List<ForkJoinTask<CatScriptTokenizer>> tasks = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            int[] chunk = chunks.get(i);
+            int end = i + 1 < chunks.size() ? chunks.get(i + 1)[0] : source.length();
+            tasks.add(pool.submit(() -> new CatScriptTokenizer(source, chunk[0], end, chunk[1])));
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            CatScriptTokenizer chunk = tasks.get(i).join();
+            boolean last = i == tasks.size() - 1;
+            // only the final chunk's EOF is kept
+            int count = last ? chunk.tokenBuffer.size() : chunk.tokenBuffer.size() - 1;
+            tokenBuffer.appendRange(chunk.tokenBuffer, 0, count);
+            if (last) {
+                postion = chunk.postion;
+                line = chunk.line;
+                lineOffset = chunk.lineOffset;
+            }
+        }
+        finished = true;
+    }
+
+    // a tokenizer over one chunk, the chunk starts right after a newline so its line offset is zero
+    private CatScriptTokenizer(CharSequence source, int start, int end, int startLine) {
         src = source;
-        tokenList = new TokenList(this);
+        limit = end;
+        postion = start;
+        line = startLine;
+        tokenBuffer = new TokenBuffer(source);
         tokenize();
     }
 
+    // re-lexes only the region damaged by an edit, reusing the tokens on either side of it.  The
+    // previous list's buffer and source are edited in place, so the work done depends on the size
+    // of the edit and its distance from the last one, not on the size of the file.  The previous
+    // list must not be used afterwards
+    public static TokenList retokenize(TokenList previous, int offset, int removedLength, String insertedText) {
+        return new CatScriptTokenizer(previous.getBuffer(), offset, removedLength, insertedText).getTokens();
+    }
+
+    private CatScriptTokenizer(TokenBuffer buffer, int offset, int removedLength, String insertedText) {
+        if (buffer.getSource() == null) {
+            throw new IllegalArgumentException("Tokens read from a stream cannot be retokenized");
+        }
+        tokenBuffer = buffer;
+        int delta = insertedText.length() - removedLength;
+        int insertedEnd = offset + insertedText.length();
+
+        // tokens ending strictly before the edit never looked at the edited text, so they are kept
+        // as is.  The rest are shifted by the edit and sit past the gap, candidates for reuse
+        int kept = tokensEndingBefore(buffer, offset);
+        buffer.moveGapTo(kept);
+        buffer.shiftAfterGap(delta, 0);
+        buffer.replaceSource(offset, removedLength, insertedText);
+        src = buffer.getSource();
+        limit = src.length();
+        if (kept > 0) {
+            int last = kept - 1;
+            postion = buffer.getEnd(last);
+            line = buffer.getLine(last);
+            lineOffset = buffer.getLineOffset(last) + buffer.getEnd(last) - buffer.getStart(last);
+        }
+
+        // lex forward until a new token lines up with an old token past the edit, after which the
+        // rest of the old tokens are still valid once their lines are shifted too
+        boolean linedUp = false;
+        while (scanNext()) {
+            int current = buffer.getGapRow() - 1;
+            int start = buffer.getStart(current);
+            int candidate = current + 1;
+            while (candidate < buffer.size() &&
+                    (buffer.getStart(candidate) < insertedEnd || buffer.getStart(candidate) < start)) {
+                buffer.removeAfterGap();
+            }
+            if (candidate < buffer.size() &&
+                    buffer.getStart(candidate) == start &&
+                    buffer.getEnd(candidate) == buffer.getEnd(current) &&
+                    buffer.getType(candidate) == buffer.getType(current) &&
+                    buffer.getLineOffset(candidate) == buffer.getLineOffset(current)) {
+                int lineDelta = buffer.getLine(current) - buffer.getLine(candidate);
+                buffer.removeAfterGap();
+                buffer.shiftAfterGap(0, lineDelta);
+                linedUp = true;
+                int eof = buffer.size() - 1;
+                postion = limit;
+                line = buffer.getLine(eof);
+                lineOffset = buffer.getLineOffset(eof);
+                finished = true;
+            }
+        }
+        // lexing ran to the end of the text without lining up, so none of the old tokens are left
+        while (!linedUp && buffer.getGapRow() < buffer.size()) {
+            buffer.removeAfterGap();
+        }
+        buffer.compactNames();
+    }
+
+    private static int tokensEndingBefore(TokenBuffer buffer, int offset) {
+        int low = 0;
+        int high = buffer.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getEnd(mid) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // finds chunk starts of roughly chunkSize characters, each just after a newline that is not inside
+    // a string or comment, along with the line number the tokenizer will be on there
+    private static List<int[]> splitChunks(CharSequence source, int chunkSize) {
+        List<int[]> chunks = new ArrayList<>();
+        chunks.add(new int[]{0, 1});
+        int length = source.length();
+        int line = 1;
+        int nextSplit = chunkSize;
+        boolean inString = false;
+        boolean inComment = false;
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"' && !inComment) {
+                inString = true;
+            } else if (c == '/' && !inComment && i + 1 < length && source.charAt(i + 1) == '/') {
+                inComment = true;
+                i++;
+            } else if (c == '\n') {
+                // newlines inside strings do not advance the tokenizer's line count
+                inComment = false;
+                line++;
+                if (i + 1 >= nextSplit && i + 1 < length) {
+                    chunks.add(new int[]{i + 1, line});
+                    nextSplit = i + 1 + chunkSize;
+                }
+            }
+        }
+        return chunks;
+    }
+
+    // streaming tokenizers read through a bounded window and only scan tokens as they are asked for
+    public CatScriptTokenizer(Reader source) {
+        this(source, StreamingSource.DEFAULT_CAPACITY);
+    }
+
+    public CatScriptTokenizer(ReadableByteChannel source) {
+        this(Channels.newReader(source, StandardCharsets.UTF_8));
+    }
+
+    CatScriptTokenizer(Reader source, int bufferSize) {
+        stream = new StreamingSource(source, bufferSize);
+        src = stream;
+        tokenBuffer = new TokenBuffer(stream, false);
+    }
+
     private void tokenize() {
-        consumeWhitespace();
-        while (!tokenizationEnd()) {
-            scanToken();
+        while (scanNext()) {
+            // keep scanning
+        }
+    }
+
+    // scans until at least one more token is in the buffer, false once the EOF token has been added
+    boolean scanNext() {
+        if (finished) {
+            return false;
+        }
+        int tokenCount = tokenBuffer.size();
+        while (tokenBuffer.size() == tokenCount) {
             consumeWhitespace();
+            if (tokenizationEnd()) {
+                tokenBuffer.addToken(EOF, postion, postion, line, lineOffset);
+                finished = true;
+            } else {
+                release();
+                scanToken();
+            }
         }
-        tokenList.addToken(EOF, "<EOF>", postion, postion, line, lineOffset);
+        return true;
     }
 
     private void scanToken() {
@@ -39,9 +251,6 @@ public class CatScriptTokenizer {
     }
 
     private boolean scanString() {
-        // TODO implement string scanning here!
-        String string = "";
-
         if(matchAndConsume('\"')) {
             int start = postion;
             while (peek() != '\"' && !tokenizationEnd()) {
@@ -53,9 +262,9 @@ public class CatScriptTokenizer {
                 }
             }
             if(matchAndConsume('\"')){
-                tokenList.addToken(STRING, src.substring(start, postion-1), start, postion, line, lineOffset);
+                tokenBuffer.addToken(STRING, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(ERROR, src.substring(start, postion), start, postion, line, lineOffset);
+                tokenBuffer.addError(src.subSequence(start, postion).toString(), start, postion, line, lineOffset);
             }
             return true;
         } else {
@@ -69,11 +278,11 @@ public class CatScriptTokenizer {
             while (isAlphaNumeric(peek())) {
                 takeChar();
             }
-            String value = src.substring(start, postion);
-            if (KEYWORDS.containsKey(value)) {
-                tokenList.addToken(KEYWORDS.get(value), value, start, postion, line, lineOffset);
+            TokenType keyword = NameTable.keywordFor(src, start, postion);
+            if (keyword != null) {
+                tokenBuffer.addToken(keyword, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(IDENTIFIER, value, start, postion, line, lineOffset);
+                tokenBuffer.addIdentifier(start, postion, line, lineOffset);
             }
             return true;
         } else {
@@ -87,7 +296,7 @@ public class CatScriptTokenizer {
             while (isDigit(peek())) {
                 takeChar();
             }
-            tokenList.addToken(INTEGER, src.substring(start, postion), start, postion, line, lineOffset);
+            tokenBuffer.addToken(INTEGER, start, postion, line, lineOffset);
             return true;
         } else {
             return false;
@@ -99,69 +308,63 @@ public class CatScriptTokenizer {
         //      - implement comments
         int start = postion;
         if (matchAndConsume('+')) {
-            tokenList.addToken(PLUS, "+", start, postion, line, lineOffset);
+            tokenBuffer.addToken(PLUS, start, postion, line, lineOffset);
         } else if (matchAndConsume('-')) {
-            tokenList.addToken(MINUS, "-", start, postion, line, lineOffset);
+            tokenBuffer.addToken(MINUS, start, postion, line, lineOffset);
         } else if (matchAndConsume('/')) {
             if (matchAndConsume('/')) {
                 while (peek() != '\n' && !tokenizationEnd()) {
                     takeChar();
+                    release();
                 }
             } else {
-                tokenList.addToken(SLASH, "/", start, postion, line, lineOffset);
+                tokenBuffer.addToken(SLASH, start, postion, line, lineOffset);
             }
         } else if (matchAndConsume('=')) {
             if (matchAndConsume('=')) {
-                tokenList.addToken(EQUAL_EQUAL, "==", start, postion, line, lineOffset);
+                tokenBuffer.addToken(EQUAL_EQUAL, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(EQUAL, "=", start, postion, line, lineOffset);
+                tokenBuffer.addToken(EQUAL, start, postion, line, lineOffset);
             }
         } else if (matchAndConsume('(')) {
-            tokenList.addToken(LEFT_PAREN, "(", start, postion, line, lineOffset);
+            tokenBuffer.addToken(LEFT_PAREN, start, postion, line, lineOffset);
         } else if (matchAndConsume(')')) {
-            tokenList.addToken(RIGHT_PAREN, ")", start, postion, line, lineOffset);
+            tokenBuffer.addToken(RIGHT_PAREN, start, postion, line, lineOffset);
         } else if (matchAndConsume('{')) {
-            tokenList.addToken(LEFT_BRACE, "{", start, postion, line, lineOffset);
+            tokenBuffer.addToken(LEFT_BRACE, start, postion, line, lineOffset);
         } else if (matchAndConsume('}')) {
-            tokenList.addToken(RIGHT_BRACE, "}", start, postion, line, lineOffset);
+            tokenBuffer.addToken(RIGHT_BRACE, start, postion, line, lineOffset);
         } else if (matchAndConsume('[')) {
-            tokenList.addToken(LEFT_BRACKET, "[", start, postion, line, lineOffset);
+            tokenBuffer.addToken(LEFT_BRACKET, start, postion, line, lineOffset);
         } else if (matchAndConsume(']')) {
-            tokenList.addToken(RIGHT_BRACKET, "]", start, postion, line, lineOffset);
+            tokenBuffer.addToken(RIGHT_BRACKET, start, postion, line, lineOffset);
         } else if (matchAndConsume(':')) {
-            tokenList.addToken(COLON, ":", start, postion, line, lineOffset);
+            tokenBuffer.addToken(COLON, start, postion, line, lineOffset);
         } else if (matchAndConsume(',')) {
-            tokenList.addToken(COMMA, ",", start, postion, line, lineOffset);
+            tokenBuffer.addToken(COMMA, start, postion, line, lineOffset);
         } else if (matchAndConsume('.')) {
-            tokenList.addToken(DOT, ".", start, postion, line, lineOffset);
+            tokenBuffer.addToken(DOT, start, postion, line, lineOffset);
         } else if (matchAndConsume('*')) {
-            tokenList.addToken(STAR, "*", start, postion, line, lineOffset);
+            tokenBuffer.addToken(STAR, start, postion, line, lineOffset);
         } else if (matchAndConsume('!')) {
             if(matchAndConsume('=')){
-                tokenList.addToken(BANG_EQUAL, "!=", start, postion, line, lineOffset);
+                tokenBuffer.addToken(BANG_EQUAL, start, postion, line, lineOffset);
             }
 
         } else if (matchAndConsume('>')) {
             if(matchAndConsume('=')){
-                tokenList.addToken(GREATER_EQUAL, ">=", start, postion, line, lineOffset);
+                tokenBuffer.addToken(GREATER_EQUAL, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(GREATER, ">", start, postion, line, lineOffset);
+                tokenBuffer.addToken(GREATER, start, postion, line, lineOffset);
             }
         } else if (matchAndConsume('<')) {
             if(matchAndConsume('=')){
-                tokenList.addToken(LESS_EQUAL, "<=", start, postion, line, lineOffset);
+                tokenBuffer.addToken(LESS_EQUAL, start, postion, line, lineOffset);
             } else {
-                tokenList.addToken(LESS, "<", start, postion, line, lineOffset);
-            }
-        }  else if (matchAndConsume('\"')) {
-            while(peek()!='\"' && !tokenizationEnd()){
-                if(peek() == '\n'){
-                    line++;
-                }
-                tokenList.addToken(STRING,""+takeChar()+"", start, postion, line, lineOffset);
+                tokenBuffer.addToken(LESS, start, postion, line, lineOffset);
             }
         } else {
-            tokenList.addToken(ERROR, "<Unexpected Token: [" + takeChar() + "]>", start, postion, line, lineOffset);
+            tokenBuffer.addError("<Unexpected Token: [" + takeChar() + "]>", start, postion, line, lineOffset);
         }
     }
 
@@ -214,7 +417,16 @@ public class CatScriptTokenizer {
     }
 
     private boolean tokenizationEnd() {
-        return postion >= src.length();
+        if (stream != null) {
+            return !stream.fill(postion);
+        }
+        return postion >= limit;
+    }
+
+    private void release() {
+        if (stream != null) {
+            stream.release(postion);
+        }
     }
 
     public boolean matchAndConsume(char c) {
@@ -226,17 +438,30 @@ public class CatScriptTokenizer {
     }
 
     public TokenList getTokens() {
+        if (tokenList == null) {
+            if (stream != null) {
+                tokenList = new TokenList(this);
+            } else {
+                tokenList = new TokenList(tokenBuffer);
+            }
+        }
         return tokenList;
     }
 
+    public TokenBuffer getTokenBuffer() {
+        return tokenBuffer;
+    }
+
     @Override
     public String toString() {
-        if (tokenizationEnd()) {
+        if (stream != null) {
+            return "<stream@" + postion + ">-->[" + peek() + "]<--";
+        } else if (tokenizationEnd()) {
             return src + "-->[]<--";
         } else {
-            return src.substring(0, postion) + "-->[" + peek() + "]<--" +
+            return src.subSequence(0, postion) + "-->[" + peek() + "]<--" +
                     ((postion == src.length() - 1) ? "" :
-                            src.substring(postion + 1, src.length() - 1));
+                            src.subSequence(postion + 1, src.length() - 1));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+
+// Source text held in a gap buffer, so an edit only moves the text between the previous edit and
+// this one rather than copying the whole file
+class EditableSource implements CharSequence {
+
+    private char[] chars;
+    private int gapStart;
+    private int gapEnd;
+
+    EditableSource(CharSequence text) {
+        int capacity = Math.max(16, text.length() * 2);
+        chars = new char[capacity];
+        for (int i = 0; i < text.length(); i++) {
+            chars[i] = text.charAt(i);
+        }
+        gapStart = text.length();
+        gapEnd = capacity;
+    }
+
+    void replace(int offset, int removedLength, CharSequence insertedText) {
+        moveGapTo(offset);
+        gapEnd += removedLength;
+        int needed = insertedText.length();
+        if (gapEnd - gapStart < needed) {
+            grow(needed);
+        }
+        for (int i = 0; i < needed; i++) {
+            chars[gapStart++] = insertedText.charAt(i);
+        }
+    }
+
+    private void moveGapTo(int offset) {
+        if (offset < gapStart) {
+            int count = gapStart - offset;
+            System.arraycopy(chars, offset, chars, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (offset > gapStart) {
+            int count = offset - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void grow(int needed) {
+        int tail = chars.length - gapEnd;
+        int capacity = Math.max(chars.length * 2, length() + needed + 16);
+        char[] grown = Arrays.copyOf(chars, capacity);
+        System.arraycopy(chars, gapEnd, grown, capacity - tail, tail);
+        chars = grown;
+        gapEnd = capacity - tail;
+    }
+
+    @Override
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        return index < gapStart ? chars[index] : chars[index + gapEnd - gapStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        if (start < gapStart) {
+            sb.append(chars, start, Math.min(end, gapStart) - start);
+        }
+        if (end > gapStart) {
+            int from = Math.max(start, gapStart);
+            sb.append(chars, from + gapEnd - gapStart, end - from);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length()).toString();
+    }
+}
@@ -0,0 +1,55 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+
+// The start offset of every line in a source, lines are numbered from 1
+public class LineIndex {
+
+    private final CharSequence src;
+    private int[] lineStarts = new int[64];
+    private int lineCount = 0;
+
+    LineIndex(CharSequence src) {
+        this.src = src;
+        addLine(0);
+        for (int i = 0; i < src.length(); i++) {
+            if (src.charAt(i) == '\n') {
+                addLine(i + 1);
+            }
+        }
+    }
+
+    private void addLine(int start) {
+        if (lineCount == lineStarts.length) {
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        }
+        lineStarts[lineCount++] = start;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getLineStart(int line) {
+        return lineStarts[line - 1];
+    }
+
+    // the text of a line without its trailing newline
+    public String getLineContent(int line) {
+        if (line < 1 || line > lineCount) {
+            return "";
+        }
+        int start = lineStarts[line - 1];
+        int end = line < lineCount ? lineStarts[line] - 1 : src.length();
+        return src.subSequence(start, end).toString();
+    }
+
+    public int getLine(int offset) {
+        int found = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    public int getColumn(int offset) {
+        return offset - getLineStart(getLine(offset));
+    }
+}
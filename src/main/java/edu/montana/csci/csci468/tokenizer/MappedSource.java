@@ -0,0 +1,69 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Script text read straight out of a memory-mapped file.  ASCII files are viewed byte for
+// byte, anything else is decoded from the mapping once.
+//
+// ASCII views keep reading the file for as long as they are reachable, and the file is only
+// checked when it is mapped.  If it is truncated in the meantime a read past its new end
+// faults (an InternalError, or SIGBUS), so only map files that won't change while the text is
+// in use, and copy it into a String for anything that holds onto it
+public class MappedSource implements CharSequence {
+
+    private final ByteBuffer bytes;
+
+    private MappedSource(ByteBuffer bytes) {
+        this.bytes = bytes;
+    }
+
+    public static CharSequence map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (isAscii(bytes)) {
+                return new MappedSource(bytes);
+            } else {
+                return StandardCharsets.UTF_8.decode(bytes).asReadOnlyBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isAscii(ByteBuffer bytes) {
+        for (int i = 0; i < bytes.limit(); i++) {
+            if (bytes.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int length() {
+        return bytes.limit();
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) bytes.get(index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new MappedSource(bytes.duplicate().position(start).limit(end).slice());
+    }
+
+    @Override
+    public String toString() {
+        byte[] ascii = new byte[bytes.limit()];
+        bytes.duplicate().get(ascii);
+        return new String(ascii, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,146 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Interns identifier names so every occurrence of a name shares one String, and
+// classifies keywords straight out of the source without allocating
+public class NameTable {
+
+    //==============================================================
+    // Keywords
+    //==============================================================
+
+    // a trie over the (lower case) keywords, state 0 is the root
+    private static final int ALPHABET = 26;
+    private static int[] transitions = new int[ALPHABET];
+    private static TokenType[] accepting = new TokenType[1];
+    private static int stateCount = 1;
+    private static final String[] KEYWORD_NAMES = new String[TokenType.values().length];
+
+    static {
+        for (Map.Entry<String, TokenType> keyword : TokenType.KEYWORDS.entrySet()) {
+            KEYWORD_NAMES[keyword.getValue().ordinal()] = keyword.getKey();
+            int state = 0;
+            for (char c : keyword.getKey().toCharArray()) {
+                int transition = state * ALPHABET + (c - 'a');
+                if (transitions[transition] == 0) {
+                    // allocate first, newState() may grow the transitions array
+                    int next = newState();
+                    transitions[transition] = next;
+                }
+                state = transitions[transition];
+            }
+            accepting[state] = keyword.getValue();
+        }
+    }
+
+    private static int newState() {
+        if (stateCount == accepting.length) {
+            accepting = Arrays.copyOf(accepting, stateCount * 2);
+            transitions = Arrays.copyOf(transitions, stateCount * 2 * ALPHABET);
+        }
+        return stateCount++;
+    }
+
+    public static TokenType keywordFor(CharSequence src, int start, int end) {
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            char c = src.charAt(i);
+            if (c < 'a' || c > 'z') {
+                return null;
+            }
+            state = transitions[state * ALPHABET + (c - 'a')];
+            if (state == 0) {
+                return null;
+            }
+        }
+        return accepting[state];
+    }
+
+    public static String keywordName(TokenType type) {
+        return KEYWORD_NAMES[type.ordinal()];
+    }
+
+    //==============================================================
+    // Identifiers
+    //==============================================================
+
+    private String[] names = new String[16];
+    private int[] hashes = new int[16];
+    private int size = 0;
+    // open addressed table of name ids + 1, zero marks an empty slot
+    private int[] slots = new int[32];
+
+    public int intern(String name) {
+        return intern(name, 0, name.length());
+    }
+
+    public int intern(CharSequence src, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + src.charAt(i);
+        }
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && regionEquals(names[id], src, start, end)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(src.subSequence(start, end).toString(), hash, slot);
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int add(String name, int hash, int slot) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        int id = size++;
+        names[id] = name;
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = spread(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean regionEquals(String name, CharSequence src, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != src.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
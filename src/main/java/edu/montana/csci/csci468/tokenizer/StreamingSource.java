@@ -0,0 +1,87 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+// A bounded, sliding window of characters read from a Reader.  Indexes are absolute
+// offsets into the stream, characters before the released position may be dropped
+class StreamingSource implements CharSequence {
+
+    static final int DEFAULT_CAPACITY = 8192;
+
+    private final Reader reader;
+    private char[] window;
+    private int windowStart = 0;
+    private int windowEnd = 0;
+    private int released = 0;
+    private boolean endOfInput = false;
+
+    StreamingSource(Reader reader, int capacity) {
+        this.reader = reader;
+        this.window = new char[capacity];
+    }
+
+    // makes the character at the given position available, false if the input ends before it
+    boolean fill(int position) {
+        while (position >= windowEnd) {
+            if (endOfInput) {
+                return false;
+            }
+            int used = windowEnd - windowStart;
+            if (used == window.length) {
+                makeRoom();
+                used = windowEnd - windowStart;
+            }
+            try {
+                int read = reader.read(window, used, window.length - used);
+                if (read < 0) {
+                    endOfInput = true;
+                    reader.close();
+                } else {
+                    windowEnd += read;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return true;
+    }
+
+    // characters before this position will not be asked for again
+    void release(int position) {
+        released = position;
+    }
+
+    private void makeRoom() {
+        int drop = released - windowStart;
+        if (drop > 0) {
+            System.arraycopy(window, drop, window, 0, windowEnd - released);
+            windowStart = released;
+        } else {
+            // a single token is larger than the window, so the window has to grow
+            window = Arrays.copyOf(window, window.length * 2);
+        }
+    }
+
+    @Override
+    public int length() {
+        return windowEnd;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return window[index - windowStart];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(window, start - windowStart, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(window, 0, windowEnd - windowStart);
+    }
+}
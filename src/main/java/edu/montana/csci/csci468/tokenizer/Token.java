@@ -1,62 +1,70 @@
 package edu.montana.csci.csci468.tokenizer;
 
+// A lightweight view of a single row in a TokenBuffer, created on demand
 public class Token {
 
-    int start;
-    int end;
-    int line;
-    int lineOffset;
-    String stringValue;
-    TokenType type;
-    private final CatScriptTokenizer tokenizer;
+    private final TokenBuffer buffer;
+    private final int index;
 
-    public Token(int start, int end, int line, int lineOffset, String stringValue, TokenType type, CatScriptTokenizer tokenizer) {
-        this.start = start;
-        this.end = end;
-        this.line = line;
-        this.lineOffset = lineOffset;
-        this.stringValue = stringValue;
-        this.type = type;
-        this.tokenizer = tokenizer;
+    public Token(TokenBuffer buffer, int index) {
+        this.buffer = buffer;
+        this.index = index;
     }
 
     public int getStart() {
-        return start;
+        return buffer.getStart(index);
     }
 
     public int getEnd() {
-        return end;
+        return buffer.getEnd(index);
     }
 
     public int getLine() {
-        return line;
+        return buffer.getLine(index);
     }
 
     public int getLineOffset() {
-        return lineOffset;
+        return buffer.getLineOffset(index);
     }
 
     public String getStringValue() {
-        return stringValue;
+        return buffer.getStringValue(index);
     }
 
     public TokenType getType() {
-        return type;
+        return buffer.getType(index);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Token token = (Token) o;
+        return buffer == token.buffer && index == token.index;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(buffer) + index;
     }
 
     @Override
     public String toString() {
-        return "Token(\"" + stringValue + "\"){" +
-                "type=" + type +
-                ", start=" + start +
-                ", end=" + end +
-                ", line=" + line +
-                ", offset=" + lineOffset +
+        return "Token(\"" + getStringValue() + "\"){" +
+                "type=" + getType() +
+                ", start=" + getStart() +
+                ", end=" + getEnd() +
+                ", line=" + getLine() +
+                ", offset=" + getLineOffset() +
                 '}';
     }
 
+    // null when the source was streamed and is no longer held
     public String getLineContent() {
-        String[] lines = tokenizer.src.split("\n");
-        return lines[line - 1];
+        LineIndex lineIndex = buffer.getLineIndex();
+        if (lineIndex == null) {
+            return null;
+        }
+        return lineIndex.getLineContent(getLine());
     }
 }
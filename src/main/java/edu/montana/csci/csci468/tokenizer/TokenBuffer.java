@@ -0,0 +1,296 @@
+package edu.montana.csci.csci468.tokenizer;
+
+import java.util.Arrays;
+
+// Tokens stored as rows across parallel primitive arrays, string values are only
+// materialized from the source when asked for.
+//
+// The free space in the arrays is a gap that sits at the end while tokenizing, and at the last
+// edit when retokenizing, so rows are inserted and removed there without moving the rest.  Rows
+// past the gap hold their offsets and lines relative to a shared delta, so an edit that changes
+// the length or line count of the text shifts them all at once
+public class TokenBuffer {
+
+    private static final TokenType[] TYPES = TokenType.values();
+    private static final int INITIAL_CAPACITY = 64;
+    // dead names tolerated before an edited buffer rebuilds its name table, on top of one per row
+    private static final int MIN_DEAD_NAMES = 1024;
+
+    private CharSequence src;
+    // streaming sources only hold a window of the text, so token values are interned as they are added
+    private final boolean retainsSource;
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int[] lines = new int[INITIAL_CAPACITY];
+    private int[] lineOffsets = new int[INITIAL_CAPACITY];
+    // the interned name id of identifier tokens and error messages, or of every token value when streaming
+    private int[] symbols = new int[INITIAL_CAPACITY];
+    private int size = 0;
+    private int gapRow = 0;
+    private int gapRows = INITIAL_CAPACITY;
+    private int suffixOffsetDelta = 0;
+    private int suffixLineDelta = 0;
+    private NameTable names;
+    private int namesAtCompaction = 0;
+    private LineIndex lineIndex;
+
+    public TokenBuffer(CharSequence src) {
+        this(src, true);
+    }
+
+    public TokenBuffer(CharSequence src, boolean retainsSource) {
+        this.src = src;
+        this.retainsSource = retainsSource;
+        this.names = new NameTable();
+    }
+
+    void addToken(TokenType type, int start, int end, int line, int lineOffset) {
+        if (retainsSource || type == TokenType.EOF) {
+            append(type, -1, start, end, line, lineOffset);
+        } else {
+            int valueEnd = type == TokenType.STRING ? end - 1 : end;
+            append(type, names.intern(src, start, valueEnd), start, end, line, lineOffset);
+        }
+    }
+
+    void addIdentifier(int start, int end, int line, int lineOffset) {
+        append(TokenType.IDENTIFIER, names.intern(src, start, end), start, end, line, lineOffset);
+    }
+
+    // errors are rare, so their messages are kept eagerly rather than rebuilt from the source
+    void addError(String message, int start, int end, int line, int lineOffset) {
+        append(TokenType.ERROR, names.intern(message), start, end, line, lineOffset);
+    }
+
+    private void append(TokenType type, int symbol, int start, int end, int line, int lineOffset) {
+        appendRow(type.ordinal(), symbol, start, end, line, lineOffset - (end - start));
+    }
+
+    // rows are added at the gap, which is the end of the buffer unless it is being edited
+    private void appendRow(int type, int symbol, int start, int end, int line, int column) {
+        if (gapRows == 0) {
+            grow();
+        }
+        types[gapRow] = type;
+        symbols[gapRow] = symbol;
+        starts[gapRow] = start;
+        ends[gapRow] = end;
+        lines[gapRow] = line;
+        lineOffsets[gapRow] = column;
+        gapRow++;
+        gapRows--;
+        size++;
+    }
+
+    // copies rows from another buffer over the same text
+    void appendRange(TokenBuffer from, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int symbol = from.getSymbol(i);
+            if (symbol >= 0 && from.names != names) {
+                symbol = names.intern(from.names.getName(symbol));
+            }
+            appendRow(from.getTypeOrdinal(i), symbol, from.getStart(i), from.getEnd(i), from.getLine(i),
+                    from.getLineOffset(i));
+        }
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = grow(types, capacity);
+        starts = grow(starts, capacity);
+        ends = grow(ends, capacity);
+        lines = grow(lines, capacity);
+        lineOffsets = grow(lineOffsets, capacity);
+        symbols = grow(symbols, capacity);
+        gapRows += capacity - (capacity / 2);
+    }
+
+    // rows past the gap stay at the end of the array
+    private int[] grow(int[] rows, int capacity) {
+        int[] grown = Arrays.copyOf(rows, capacity);
+        int suffix = size - gapRow;
+        System.arraycopy(rows, rows.length - suffix, grown, capacity - suffix, suffix);
+        return grown;
+    }
+
+    //==============================================================
+    // Editing
+    //==============================================================
+
+    // applies an edit to the source, copying it into a gap buffer the first time
+    void replaceSource(int offset, int removedLength, String insertedText) {
+        if (!(src instanceof EditableSource)) {
+            src = new EditableSource(src);
+        }
+        ((EditableSource) src).replace(offset, removedLength, insertedText);
+        lineIndex = null;
+    }
+
+    // moves the gap to just before the given row, converting the rows it passes over
+    void moveGapTo(int index) {
+        if (index < gapRow) {
+            int count = gapRow - index;
+            moveRows(index, index + gapRows, count);
+            for (int r = index + gapRows; r < gapRow + gapRows; r++) {
+                starts[r] -= suffixOffsetDelta;
+                ends[r] -= suffixOffsetDelta;
+                lines[r] -= suffixLineDelta;
+            }
+            gapRow = index;
+        } else if (index > gapRow) {
+            int count = index - gapRow;
+            moveRows(gapRow + gapRows, gapRow, count);
+            for (int r = gapRow; r < index; r++) {
+                starts[r] += suffixOffsetDelta;
+                ends[r] += suffixOffsetDelta;
+                lines[r] += suffixLineDelta;
+            }
+            gapRow = index;
+        }
+    }
+
+    private void moveRows(int from, int to, int count) {
+        System.arraycopy(types, from, types, to, count);
+        System.arraycopy(symbols, from, symbols, to, count);
+        System.arraycopy(starts, from, starts, to, count);
+        System.arraycopy(ends, from, ends, to, count);
+        System.arraycopy(lines, from, lines, to, count);
+        System.arraycopy(lineOffsets, from, lineOffsets, to, count);
+    }
+
+    // the number of rows before the gap, new rows are added at this index
+    int getGapRow() {
+        return gapRow;
+    }
+
+    // removes the row just past the gap
+    void removeAfterGap() {
+        gapRows++;
+        size--;
+    }
+
+    // shifts every row past the gap
+    void shiftAfterGap(int offsetDelta, int lineDelta) {
+        suffixOffsetDelta += offsetDelta;
+        suffixLineDelta += lineDelta;
+    }
+
+    // edits intern the names of tokens they later replace, so once the dead names outnumber the
+    // rows the table is rebuilt from the rows still in the buffer
+    void compactNames() {
+        if (names.size() - namesAtCompaction <= Math.max(size, MIN_DEAD_NAMES)) {
+            return;
+        }
+        NameTable live = new NameTable();
+        for (int i = 0; i < size; i++) {
+            int r = row(i);
+            if (symbols[r] >= 0) {
+                symbols[r] = live.intern(names.getName(symbols[r]));
+            }
+        }
+        names = live;
+        namesAtCompaction = live.size();
+    }
+
+    //==============================================================
+    // Rows
+    //==============================================================
+
+    private int row(int index) {
+        return index < gapRow ? index : index + gapRows;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // null when the tokens came from a stream
+    public CharSequence getSource() {
+        return retainsSource ? src : null;
+    }
+
+    // built the first time a line is looked up, null when the tokens came from a stream
+    public LineIndex getLineIndex() {
+        if (lineIndex == null && retainsSource) {
+            lineIndex = new LineIndex(src);
+        }
+        return lineIndex;
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public int getSymbol(int index) {
+        return symbols[row(index)];
+    }
+
+    public Token getToken(int index) {
+        return new Token(this, index);
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[row(index)]];
+    }
+
+    int getTypeOrdinal(int index) {
+        return types[row(index)];
+    }
+
+    public int getStart(int index) {
+        return index < gapRow ? starts[index] : starts[index + gapRows] + suffixOffsetDelta;
+    }
+
+    public int getEnd(int index) {
+        return index < gapRow ? ends[index] : ends[index + gapRows] + suffixOffsetDelta;
+    }
+
+    public int getLine(int index) {
+        return index < gapRow ? lines[index] : lines[index + gapRows] + suffixLineDelta;
+    }
+
+    public int getLineOffset(int index) {
+        return lineOffsets[row(index)];
+    }
+
+    // compares a token's value against a string without materializing it
+    public boolean valueEquals(int index, String value) {
+        TokenType type = getType(index);
+        if (!retainsSource || type == TokenType.IDENTIFIER || type == TokenType.EOF || type == TokenType.ERROR ||
+                NameTable.keywordName(type) != null) {
+            return value.equals(getStringValue(index));
+        }
+        int start = getStart(index);
+        int length = getEnd(index) - start;
+        if (type == TokenType.STRING) {
+            length--;
+        }
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (src.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getStringValue(int index) {
+        TokenType type = getType(index);
+        String keyword = NameTable.keywordName(type);
+        if (keyword != null) {
+            return keyword;
+        } else if (type == TokenType.EOF) {
+            return "<EOF>";
+        } else if (type == TokenType.IDENTIFIER || type == TokenType.ERROR || !retainsSource) {
+            return names.getName(getSymbol(index));
+        } else if (type == TokenType.STRING) {
+            // the end of a string token includes its closing quote
+            return src.subSequence(getStart(index), getEnd(index) - 1).toString();
+        } else {
+            return src.subSequence(getStart(index), getEnd(index)).toString();
+        }
+    }
+}
@@ -1,58 +1,83 @@
 package edu.montana.csci.csci468.tokenizer;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
-import java.util.Spliterator;
-import java.util.function.Consumer;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-import static edu.montana.csci.csci468.tokenizer.TokenType.EOF;
 import static edu.montana.csci.csci468.tokenizer.TokenType.IDENTIFIER;
 
 public class TokenList implements Iterable<Token> {
 
+    private final TokenBuffer buffer;
     private final CatScriptTokenizer tokenizer;
-    List<Token> tokens = new ArrayList<>();
     int currentToken = 0;
 
-    public TokenList(CatScriptTokenizer tokenizer) {
+    public TokenList(TokenBuffer buffer) {
+        this.buffer = buffer;
+        this.tokenizer = null;
+    }
+
+    // a list fed by a streaming tokenizer, tokens are scanned as the cursor reaches them
+    TokenList(CatScriptTokenizer tokenizer) {
+        this.buffer = tokenizer.getTokenBuffer();
         this.tokenizer = tokenizer;
     }
 
-    void addToken(TokenType eof, String stringValue, int start, int end, int line, int lineOffset) {
-        tokens.add(new Token(start, end, line, lineOffset - (end - start), stringValue, eof, tokenizer));
+    private void scanTo(int index) {
+        if (tokenizer != null) {
+            while (index >= buffer.size() && tokenizer.scanNext()) {
+                // keep scanning
+            }
+        }
+    }
+
+    public TokenBuffer getBuffer() {
+        return buffer;
     }
 
     public Token getCurrentToken() {
-        return tokens.get(currentToken);
+        scanTo(currentToken);
+        return buffer.getToken(currentToken);
     }
 
     public Token consumeToken() {
-        return tokens.get(currentToken++);
+        scanTo(currentToken);
+        return buffer.getToken(currentToken++);
     }
 
-    public boolean matchAndConsume(TokenType... type) {
+    public boolean matchAndConsume(TokenType type) {
         if (match(type)) {
-            consumeToken();
+            currentToken++;
             return true;
         } else {
             return false;
         }
     }
 
-    public boolean match(String identifier) {
-        if (getCurrentToken().getType().equals(IDENTIFIER) &&
-            getCurrentToken().getStringValue().equals(identifier)) {
+    public boolean matchAndConsume(TokenType... type) {
+        if (match(type)) {
+            currentToken++;
             return true;
         } else {
             return false;
         }
     }
 
+    public boolean match(String identifier) {
+        return match(IDENTIFIER) && buffer.valueEquals(currentToken, identifier);
+    }
+
+    public boolean match(TokenType type) {
+        scanTo(currentToken);
+        return buffer.getTypeOrdinal(currentToken) == type.ordinal();
+    }
+
     public boolean match(TokenType... type) {
+        scanTo(currentToken);
+        int current = buffer.getTypeOrdinal(currentToken);
         for (TokenType tokenType : type) {
-            if (getCurrentToken().getType().equals(tokenType)) {
+            if (current == tokenType.ordinal()) {
                 return true;
             }
         }
@@ -64,41 +89,54 @@ public class TokenList implements Iterable<Token> {
     }
 
     public boolean hasMoreTokens() {
-        return currentToken < tokens.size() - 1;
+        scanTo(currentToken + 1);
+        return currentToken < buffer.size() - 1;
     }
 
     public Token lastToken() {
-        return tokens.get(Math.max(0, currentToken - 1));
+        return buffer.getToken(Math.max(0, currentToken - 1));
+    }
+
+    public int size() {
+        scanTo(Integer.MAX_VALUE);
+        return buffer.size();
     }
 
     public Stream<Token> stream() {
-        return tokens.stream();
+        scanTo(Integer.MAX_VALUE);
+        return IntStream.range(0, buffer.size()).mapToObj(buffer::getToken);
     }
 
     @Override
     public Iterator<Token> iterator() {
-        return tokens.iterator();
-    }
+        scanTo(Integer.MAX_VALUE);
+        return new Iterator<>() {
+            int next = 0;
 
-    @Override
-    public void forEach(Consumer action) {
-        tokens.forEach(action);
-    }
+            @Override
+            public boolean hasNext() {
+                return next < buffer.size();
+            }
 
-    @Override
-    public Spliterator<Token> spliterator() {
-        return tokens.spliterator();
+            @Override
+            public Token next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return buffer.getToken(next++);
+            }
+        };
     }
 
     @Override
     public String toString() {
+        scanTo(Integer.MAX_VALUE);
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < tokens.size(); i++) {
-            Token token = tokens.get(i);
+        for (int i = 0; i < buffer.size(); i++) {
             if (i == currentToken) {
                 sb.append("-->[");
             }
-            sb.append(token.getStringValue());
+            sb.append(buffer.getStringValue(i));
             if (i == currentToken) {
                 sb.append("]<--");
             }
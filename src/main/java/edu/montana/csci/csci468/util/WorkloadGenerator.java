@@ -0,0 +1,92 @@
+package edu.montana.csci.csci468.util;
+
+// Generates valid CatScript programs of a configurable size and shape.  The output only depends
+// on the knobs, so the same settings always produce the same program.
+//
+// Each function gets its own unit: a recursive function, a list variable and a block nested
+// nestingDepth deep, alternating between for loops over loopTrips elements and if/else
+// statements.  Every name is numbered by its unit, so units never clash.
+public class WorkloadGenerator {
+
+    private int functionCount = 10;
+    private int nestingDepth = 2;
+    private int listSize = 10;
+    private int loopTrips = 5;
+    private int recursionDepth = 10;
+
+    public WorkloadGenerator functionCount(int functionCount) {
+        this.functionCount = functionCount;
+        return this;
+    }
+
+    public WorkloadGenerator nestingDepth(int nestingDepth) {
+        this.nestingDepth = nestingDepth;
+        return this;
+    }
+
+    public WorkloadGenerator listSize(int listSize) {
+        this.listSize = listSize;
+        return this;
+    }
+
+    public WorkloadGenerator loopTrips(int loopTrips) {
+        this.loopTrips = loopTrips;
+        return this;
+    }
+
+    public WorkloadGenerator recursionDepth(int recursionDepth) {
+        this.recursionDepth = recursionDepth;
+        return this;
+    }
+
+    public String generate() {
+        StringBuilder sb = new StringBuilder();
+        for (int unit = 0; unit < functionCount; unit++) {
+            generateUnit(sb, unit);
+        }
+        return sb.toString();
+    }
+
+    private void generateUnit(StringBuilder sb, int unit) {
+        String function = "fn" + unit;
+        sb.append("// unit ").append(unit).append("\n");
+        sb.append("function ").append(function).append("(n : int, s : string) : string {\n");
+        sb.append("  if (n < 1) { return s } else { return ").append(function).append("(n - 1, s + n) }\n");
+        sb.append("}\n");
+        sb.append("var list").append(unit).append(" : list<int> = ").append(intList(listSize)).append("\n");
+        sb.append("var trips").append(unit).append(" : list<int> = ").append(intList(loopTrips)).append("\n");
+        sb.append("print(").append(function).append("(").append(recursionDepth).append(", \"").append(function).append(":\"))\n");
+        sb.append("print(list").append(unit).append(")\n");
+        generateNest(sb, unit, 0, null);
+    }
+
+    private void generateNest(StringBuilder sb, int unit, int level, String loopVariable) {
+        String indent = "  ".repeat(level);
+        if (level == nestingDepth) {
+            sb.append(indent).append("print(\"unit ").append(unit).append(": \" + ")
+                    .append(loopVariable == null ? "0" : loopVariable).append(")\n");
+        } else if (level % 2 == 0) {
+            String variable = "v" + unit + "_" + level;
+            sb.append(indent).append("for (").append(variable).append(" in trips").append(unit).append(") {\n");
+            generateNest(sb, unit, level + 1, variable);
+            sb.append(indent).append("}\n");
+        } else {
+            sb.append(indent).append("if (").append(loopVariable).append(" < ").append(loopTrips / 2).append(") {\n");
+            generateNest(sb, unit, level + 1, loopVariable);
+            sb.append(indent).append("} else {\n");
+            sb.append(indent).append("  print(").append(loopVariable).append(" * 2 + 1)\n");
+            sb.append(indent).append("}\n");
+        }
+    }
+
+    private static String intList(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(i);
+        }
+        return sb.append("]").toString();
+    }
+}
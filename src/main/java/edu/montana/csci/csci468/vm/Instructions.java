@@ -0,0 +1,50 @@
+package edu.montana.csci.csci468.vm;
+
+// Opcodes of the register VM.  Each instruction is an opcode followed by its operands in the
+// function's int[] code, registers are numbered separately in the int file (ints and bools,
+// bools as 0 or 1) and the object file
+public final class Instructions {
+
+    private Instructions() {
+    }
+
+    public static final int INT_CONST = 0;        // int dst, value
+    public static final int OBJECT_CONST = 1;     // object dst, constant index
+    public static final int INT_MOVE = 2;         // int dst, int src
+    public static final int OBJECT_MOVE = 3;      // object dst, object src
+    public static final int INT_GLOBAL = 4;       // int dst, global int slot
+    public static final int OBJECT_GLOBAL = 5;    // object dst, global object slot
+    public static final int BOX_INT = 6;          // object dst, int src
+    public static final int BOX_BOOL = 7;         // object dst, int src
+    public static final int UNBOX_INT = 8;        // int dst, object src
+    public static final int UNBOX_BOOL = 9;       // int dst, object src
+
+    public static final int ADD = 10;             // int dst, int a, int b
+    public static final int SUBTRACT = 11;
+    public static final int MULTIPLY = 12;
+    public static final int DIVIDE = 13;
+    public static final int NEGATE = 14;          // int dst, int src
+    public static final int NOT = 15;
+    public static final int LESS = 16;            // int dst, int a, int b
+    public static final int LESS_EQUAL = 17;
+    public static final int GREATER = 18;
+    public static final int GREATER_EQUAL = 19;
+    public static final int INT_EQUAL = 20;
+    public static final int INT_NOT_EQUAL = 21;
+    public static final int OBJECT_EQUAL = 22;    // int dst, object a, object b
+    public static final int OBJECT_NOT_EQUAL = 23;
+    public static final int CONCAT = 24;          // object dst, object a, object b
+
+    public static final int NEW_LIST = 25;        // object dst, first object register, count
+    public static final int PRINT = 26;           // object src
+    public static final int JUMP = 27;            // target
+    public static final int JUMP_IF_FALSE = 28;   // int condition, target
+    public static final int ITERATOR = 29;        // object dst, object list
+    public static final int NEXT_OR_JUMP = 30;    // object dst, object iterator, target when exhausted
+    public static final int CALL = 31;            // dst, function index, argument count, argument registers...
+    public static final int RETURN_INT = 32;      // int src
+    public static final int RETURN_OBJECT = 33;   // object src
+    public static final int RETURN_VOID = 34;
+    public static final int INT_SET_GLOBAL = 35;  // global int slot, int src
+    public static final int OBJECT_SET_GLOBAL = 36; // global object slot, object src
+}
@@ -0,0 +1,22 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+public class RegisterCatScriptProgram extends CatScriptProgram {
+
+    private VMFunction main;
+    private VMFunction[] functions;
+    private Object[] constants;
+
+    void setCode(VMFunction main, VMFunction[] functions, Object[] constants) {
+        this.main = main;
+        this.functions = functions;
+        this.constants = constants;
+    }
+
+    @Override
+    public void execute(CatscriptRuntime runtime) {
+        new RegisterVM(this, functions, constants).run(main);
+    }
+}
@@ -0,0 +1,183 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.parser.CatscriptType;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.Statement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static edu.montana.csci.csci468.vm.Instructions.*;
+
+// Compiles a verified program into register VM code.  A variable lives in the register matching
+// its resolver slot, in the int file for ints and bools and the object file for everything else,
+// so only temporaries are allocated here, above the frame's slots.  The top level frame doubles
+// as the globals functions read from
+public class RegisterCompiler {
+
+    private final CatScriptProgram program;
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new HashMap<>();
+    private final List<VMFunction> functions = new ArrayList<>();
+    private final Map<FunctionDefinitionStatement, Integer> functionIndexes = new HashMap<>();
+    private final Deque<FunctionDefinitionStatement> pending = new ArrayDeque<>();
+
+    // state of the function being compiled
+    private int[] code;
+    private int size;
+    private int nextInt;
+    private int nextObject;
+    private int maxInts;
+    private int maxObjects;
+
+    public RegisterCompiler(CatScriptProgram program) {
+        this.program = program;
+    }
+
+    public CatScriptProgram compileToRegisters() {
+        beginFunction(program.getGlobalFrameSize());
+        program.compileRegisters(this);
+        emit(RETURN_VOID);
+        VMFunction main = endFunction("<main>", new boolean[0], false);
+        while (!pending.isEmpty()) {
+            FunctionDefinitionStatement function = pending.poll();
+            beginFunction(function.getFrameSize());
+            compileStatements(function.getBody());
+            emit(RETURN_VOID);
+            boolean[] intParameters = new boolean[function.getParameterCount()];
+            for (int i = 0; i < intParameters.length; i++) {
+                intParameters[i] = isInt(function.getParameterType(i));
+            }
+            functions.set(functionIndexes.get(function),
+                    endFunction(function.getName(), intParameters, isInt(function.getType())));
+        }
+        RegisterCatScriptProgram compiledProgram = new RegisterCatScriptProgram();
+        compiledProgram.setCode(main, functions.toArray(new VMFunction[0]), constants.toArray());
+        return compiledProgram;
+    }
+
+    private void beginFunction(int frameSize) {
+        code = new int[64];
+        size = 0;
+        nextInt = maxInts = frameSize;
+        nextObject = maxObjects = frameSize;
+    }
+
+    private VMFunction endFunction(String name, boolean[] intParameters, boolean returnsInt) {
+        return new VMFunction(name, Arrays.copyOf(code, size), maxInts, maxObjects, intParameters, returnsInt);
+    }
+
+    // temporaries only live for the statement that allocated them
+    public void compileStatements(List<Statement> statements) {
+        for (Statement statement : statements) {
+            int savedInt = nextInt;
+            int savedObject = nextObject;
+            statement.compileRegisters(this);
+            nextInt = savedInt;
+            nextObject = savedObject;
+        }
+    }
+
+    public static boolean isInt(CatscriptType type) {
+        return type == CatscriptType.INT || type == CatscriptType.BOOLEAN;
+    }
+
+    public int allocateInt() {
+        maxInts = Math.max(maxInts, nextInt + 1);
+        return nextInt++;
+    }
+
+    public int allocateObject() {
+        return allocateObjects(1);
+    }
+
+    // a run of consecutive object registers, for list elements
+    public int allocateObjects(int count) {
+        int first = nextObject;
+        nextObject += count;
+        maxObjects = Math.max(maxObjects, nextObject);
+        return first;
+    }
+
+    public int allocate(CatscriptType type) {
+        return isInt(type) ? allocateInt() : allocateObject();
+    }
+
+    public int constant(Object value) {
+        Integer index = constantIndexes.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    // functions get their index on first reference and are compiled after the current one
+    public int functionIndex(FunctionDefinitionStatement function) {
+        Integer index = functionIndexes.get(function);
+        if (index == null) {
+            index = functions.size();
+            functions.add(null);
+            functionIndexes.put(function, index);
+            pending.add(function);
+        }
+        return index;
+    }
+
+    // a register of type "to" holding the value of register of type "from"
+    public int convert(int register, CatscriptType from, CatscriptType to) {
+        if (isInt(from) == isInt(to)) {
+            return register;
+        }
+        int target = allocate(to);
+        move(target, register, from, to);
+        return target;
+    }
+
+    public int toObject(int register, CatscriptType type) {
+        return convert(register, type, CatscriptType.OBJECT);
+    }
+
+    public void move(int target, int register, CatscriptType from, CatscriptType to) {
+        if (isInt(to)) {
+            if (isInt(from)) {
+                emit(INT_MOVE, target, register);
+            } else {
+                emit(to == CatscriptType.BOOLEAN ? UNBOX_BOOL : UNBOX_INT, target, register);
+            }
+        } else if (isInt(from)) {
+            emit(from == CatscriptType.BOOLEAN ? BOX_BOOL : BOX_INT, target, register);
+        } else {
+            emit(OBJECT_MOVE, target, register);
+        }
+    }
+
+    public void emit(int... words) {
+        if (size + words.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + words.length));
+        }
+        System.arraycopy(words, 0, code, size, words.length);
+        size += words.length;
+    }
+
+    public int position() {
+        return size;
+    }
+
+    // emits a jump whose target is filled in later by patch, the target is the last operand
+    public int emitJump(int... words) {
+        emit(words);
+        return size - 1;
+    }
+
+    public void patch(int jump) {
+        code[jump] = size;
+    }
+}
@@ -0,0 +1,213 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.parser.expressions.EqualityExpression;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static edu.montana.csci.csci468.vm.Instructions.*;
+
+// Runs register VM code with a switch dispatch loop, every call gets fresh register files and
+// the main function's files are the globals
+public class RegisterVM {
+
+    private final CatScriptProgram program;
+    private final VMFunction[] functions;
+    private final Object[] constants;
+    private int[] globalInts;
+    private Object[] globalObjects;
+    // int and bool results are handed back here rather than boxed
+    private int intResult;
+
+    RegisterVM(CatScriptProgram program, VMFunction[] functions, Object[] constants) {
+        this.program = program;
+        this.functions = functions;
+        this.constants = constants;
+    }
+
+    void run(VMFunction main) {
+        globalInts = new int[main.intRegisters];
+        globalObjects = new Object[main.objectRegisters];
+        run(main, globalInts, globalObjects);
+    }
+
+    private Object run(VMFunction function, int[] ints, Object[] objects) {
+        int[] code = function.code;
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case INT_CONST:
+                    ints[code[pc + 1]] = code[pc + 2];
+                    pc += 3;
+                    break;
+                case OBJECT_CONST:
+                    objects[code[pc + 1]] = constants[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case INT_MOVE:
+                    ints[code[pc + 1]] = ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case OBJECT_MOVE:
+                    objects[code[pc + 1]] = objects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case INT_GLOBAL:
+                    ints[code[pc + 1]] = globalInts[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case OBJECT_GLOBAL:
+                    objects[code[pc + 1]] = globalObjects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case INT_SET_GLOBAL:
+                    globalInts[code[pc + 1]] = ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case OBJECT_SET_GLOBAL:
+                    globalObjects[code[pc + 1]] = objects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case BOX_INT:
+                    objects[code[pc + 1]] = ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case BOX_BOOL:
+                    objects[code[pc + 1]] = ints[code[pc + 2]] != 0;
+                    pc += 3;
+                    break;
+                case UNBOX_INT:
+                    ints[code[pc + 1]] = (Integer) objects[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case UNBOX_BOOL:
+                    ints[code[pc + 1]] = (Boolean) objects[code[pc + 2]] ? 1 : 0;
+                    pc += 3;
+                    break;
+                case ADD:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] + ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case SUBTRACT:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] - ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case MULTIPLY:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] * ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case DIVIDE:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] / ints[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case NEGATE:
+                    ints[code[pc + 1]] = -ints[code[pc + 2]];
+                    pc += 3;
+                    break;
+                case NOT:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] == 0 ? 1 : 0;
+                    pc += 3;
+                    break;
+                case LESS:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] < ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case LESS_EQUAL:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] <= ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case GREATER:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] > ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case GREATER_EQUAL:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] >= ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case INT_EQUAL:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] == ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case INT_NOT_EQUAL:
+                    ints[code[pc + 1]] = ints[code[pc + 2]] != ints[code[pc + 3]] ? 1 : 0;
+                    pc += 4;
+                    break;
+                case OBJECT_EQUAL:
+                    ints[code[pc + 1]] = EqualityExpression.same(objects[code[pc + 2]], objects[code[pc + 3]]) ? 1 : 0;
+                    pc += 4;
+                    break;
+                case OBJECT_NOT_EQUAL:
+                    ints[code[pc + 1]] = EqualityExpression.same(objects[code[pc + 2]], objects[code[pc + 3]]) ? 0 : 1;
+                    pc += 4;
+                    break;
+                case CONCAT:
+                    objects[code[pc + 1]] = String.valueOf(objects[code[pc + 2]]) + objects[code[pc + 3]];
+                    pc += 4;
+                    break;
+                case NEW_LIST: {
+                    int first = code[pc + 2];
+                    objects[code[pc + 1]] = Arrays.asList(Arrays.copyOfRange(objects, first, first + code[pc + 3]));
+                    pc += 4;
+                    break;
+                }
+                case PRINT:
+                    program.print(objects[code[pc + 1]]);
+                    pc += 2;
+                    break;
+                case JUMP:
+                    pc = code[pc + 1];
+                    break;
+                case JUMP_IF_FALSE:
+                    pc = ints[code[pc + 1]] == 0 ? code[pc + 2] : pc + 3;
+                    break;
+                case ITERATOR:
+                    objects[code[pc + 1]] = ((List<?>) objects[code[pc + 2]]).iterator();
+                    pc += 3;
+                    break;
+                case NEXT_OR_JUMP: {
+                    Iterator<?> iterator = (Iterator<?>) objects[code[pc + 2]];
+                    if (iterator.hasNext()) {
+                        objects[code[pc + 1]] = iterator.next();
+                        pc += 4;
+                    } else {
+                        pc = code[pc + 3];
+                    }
+                    break;
+                }
+                case CALL: {
+                    VMFunction callee = functions[code[pc + 2]];
+                    int argumentCount = code[pc + 3];
+                    int[] calleeInts = new int[callee.intRegisters];
+                    Object[] calleeObjects = new Object[callee.objectRegisters];
+                    for (int i = 0; i < argumentCount; i++) {
+                        int register = code[pc + 4 + i];
+                        if (callee.intParameters[i]) {
+                            calleeInts[i] = ints[register];
+                        } else {
+                            calleeObjects[i] = objects[register];
+                        }
+                    }
+                    Object result = run(callee, calleeInts, calleeObjects);
+                    if (callee.returnsInt) {
+                        ints[code[pc + 1]] = intResult;
+                    } else {
+                        objects[code[pc + 1]] = result;
+                    }
+                    pc += 4 + argumentCount;
+                    break;
+                }
+                case RETURN_INT:
+                    intResult = ints[code[pc + 1]];
+                    return null;
+                case RETURN_OBJECT:
+                    return objects[code[pc + 1]];
+                case RETURN_VOID:
+                    return null;
+                default:
+                    throw new IllegalStateException("Unknown instruction " + code[pc] + " at " + pc + " in " + function.name);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package edu.montana.csci.csci468.vm;
+
+// A compiled function, parameters arrive in the first registers of the file matching their type
+public class VMFunction {
+
+    final String name;
+    final int[] code;
+    final int intRegisters;
+    final int objectRegisters;
+    final boolean[] intParameters;
+    final boolean returnsInt;
+
+    VMFunction(String name, int[] code, int intRegisters, int objectRegisters,
+               boolean[] intParameters, boolean returnsInt) {
+        this.name = name;
+        this.code = code;
+        this.intRegisters = intRegisters;
+        this.objectRegisters = objectRegisters;
+        this.intParameters = intParameters;
+        this.returnsInt = returnsInt;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCodeSize() {
+        return code.length;
+    }
+}
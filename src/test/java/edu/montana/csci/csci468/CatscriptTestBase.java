@@ -1,7 +1,9 @@
 package edu.montana.csci.csci468;
 
 import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
 import edu.montana.csci.csci468.eval.CatscriptRuntime;
+import edu.montana.csci.csci468.eval.ClosureCompiler;
 import edu.montana.csci.csci468.js.JSTranspiler;
 import edu.montana.csci.csci468.parser.CatScriptParser;
 import edu.montana.csci.csci468.parser.ErrorType;
@@ -14,10 +16,13 @@ import edu.montana.csci.csci468.tokenizer.CatScriptTokenizer;
 import edu.montana.csci.csci468.tokenizer.Token;
 import edu.montana.csci.csci468.tokenizer.TokenList;
 import edu.montana.csci.csci468.tokenizer.TokenType;
+import edu.montana.csci.csci468.util.WorkloadGenerator;
+import edu.montana.csci.csci468.vm.RegisterCompiler;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -89,35 +94,54 @@ public class CatscriptTestBase {
         }
     }
 
-    protected Object evaluateExpression(String src) {
+    protected CatScriptProgram parseVerified(String src) {
         final CatScriptParser parser = new CatScriptParser();
         final CatScriptProgram program = parser.parse(src);
         program.verify();
+        return program;
+    }
+
+    protected Object evaluateExpression(String src) {
+        final CatScriptProgram program = parseVerified(src);
         return program.getExpression().evaluate(new CatscriptRuntime());
     }
 
     protected Object executeProgram(String src) {
-        final CatScriptParser parser = new CatScriptParser();
-        final CatScriptProgram program = parser.parse(src);
-        program.verify();
+        final CatScriptProgram program = parseVerified(src);
         program.execute();
         return program.getOutput();
     }
 
+    protected Object executeClosures(String src) {
+        final CatScriptProgram program = parseVerified(src);
+        CatScriptProgram compiled = new ClosureCompiler(program).compileToClosures();
+        compiled.execute();
+        return compiled.getOutput();
+    }
+
+    protected Object executeRegisters(String src) {
+        final CatScriptProgram program = parseVerified(src);
+        CatScriptProgram compiled = new RegisterCompiler(program).compileToRegisters();
+        compiled.execute();
+        return compiled.getOutput();
+    }
+
+    // a generated program prints the same through the given backend as through the tree walker
+    protected void assertWorkloadMatchesTreeWalker(Function<String, Object> backend) {
+        String src = new WorkloadGenerator().functionCount(5).nestingDepth(4).generate();
+        assertEquals(executeProgram(src), backend.apply(src));
+    }
+
     protected String transpile(String src) {
-        final CatScriptParser parser = new CatScriptParser();
-        final CatScriptProgram program = parser.parse(src);
-        program.verify();
+        final CatScriptProgram program = parseVerified(src);
         JSTranspiler jsTranspiler = new JSTranspiler(program);
         System.out.println(jsTranspiler.getJavascriptSource());
         return jsTranspiler.evaluate();
     }
 
     protected String compile(String src) {
-        final CatScriptParser parser = new CatScriptParser();
-        final CatScriptProgram program = parser.parse(src);
-        program.verify();
-        ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program);
+        final CatScriptProgram program = parseVerified(src);
+        ByteCodeGenerator byteCodeGenerator = new ByteCodeGenerator(program, CompileOptions.VERIFY);
         CatScriptProgram catScriptProgram = byteCodeGenerator.compileToBytecode();
         catScriptProgram.execute();
         return catScriptProgram.getOutput();
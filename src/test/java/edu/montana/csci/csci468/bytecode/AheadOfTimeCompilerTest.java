@@ -0,0 +1,86 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AheadOfTimeCompilerTest extends CatscriptTestBase {
+
+    private static final String SRC = "function fib(n : int) : int {\n" +
+            "  if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) }\n" +
+            "}\n" +
+            "for (i in [5, 10]) { print(\"fib \" + fib(i)) }";
+
+    @Test
+    void classNamesComeFromTheFileName() {
+        assertEquals("catscript.HelloWorld", AheadOfTimeCompiler.classNameFor(Paths.get("scripts/hello-world.cat")));
+        assertEquals("catscript.Fib", AheadOfTimeCompiler.classNameFor(Paths.get("fib.cat")));
+        assertEquals("catscript.Script2d", AheadOfTimeCompiler.classNameFor(Paths.get("2d.cat")));
+    }
+
+    @Test
+    void compiledClassesRunFromTheirMain(@TempDir Path dir) throws Exception {
+        Path script = write(dir, "fib.cat", SRC);
+        Path classes = dir.resolve("classes");
+        new AheadOfTimeCompiler().writeClasses(List.of(script), classes);
+        assertEquals("fib 5\nfib 55\n", runMain(classes, "catscript.Fib"));
+    }
+
+    @Test
+    void jarsNameTheFirstScriptAsMainClass(@TempDir Path dir) throws Exception {
+        Path fib = write(dir, "fib.cat", SRC);
+        Path other = write(dir, "other.cat", "print(\"other\")");
+        Path jar = dir.resolve("app.jar");
+        new AheadOfTimeCompiler().writeJar(List.of(fib, other), jar, true);
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            assertEquals("catscript.Fib", jarFile.getManifest().getMainAttributes().getValue("Main-Class"));
+            assertNotNull(jarFile.getEntry("catscript/Other.class"));
+            assertNotNull(jarFile.getEntry("edu/montana/csci/csci468/parser/statements/CatScriptProgram.class"));
+        }
+        assertEquals("fib 5\nfib 55\n", runMain(jar, "catscript.Fib"));
+        assertEquals("other\n", runMain(jar, "catscript.Other"));
+    }
+
+    @Test
+    void jarsCanLeaveTheRuntimeOut(@TempDir Path dir) throws Exception {
+        Path jar = dir.resolve("app.jar");
+        new AheadOfTimeCompiler().writeJar(List.of(write(dir, "fib.cat", SRC)), jar, false);
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            assertNotNull(jarFile.getEntry("catscript/Fib.class"));
+            assertNull(jarFile.getEntry("edu/montana/csci/csci468/parser/statements/CatScriptProgram.class"));
+        }
+    }
+
+    private static Path write(Path dir, String name, String source) throws Exception {
+        return Files.writeString(dir.resolve(name), source);
+    }
+
+    // the runtime classes come from the test class path, so only the compiled script is
+    // loaded from the output
+    private static String runMain(Path classPath, String className) throws Exception {
+        PrintStream out = System.out;
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classPath.toUri().toURL()},
+                AheadOfTimeCompilerTest.class.getClassLoader())) {
+            System.setOut(new PrintStream(captured, true));
+            loader.loadClass(className).getMethod("main", String[].class).invoke(null, (Object) new String[0]);
+        } finally {
+            System.setOut(out);
+        }
+        return captured.toString();
+    }
+}
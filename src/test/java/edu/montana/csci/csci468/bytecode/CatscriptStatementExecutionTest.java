@@ -1,9 +1,20 @@
 package edu.montana.csci.csci468.bytecode;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.util.WorkloadGenerator;
 import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class CatscriptStatementExecutionTest extends CatscriptTestBase {
 
@@ -90,5 +101,54 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         ));
     }
 
+    @Test
+    void blockLocalsReuseSlots() {
+        String src = "function f(n : int) {\n" +
+                "  if (n > 0) { var a = n\n print(a) } else { var b = \"b\"\n print(b) }\n" +
+                "}\n" +
+                "f(1)\n" +
+                "f(0)\n" +
+                "for (i in [2, 3]) { var s = \"x\" + i\n print(s) }";
+        assertEquals("1\nb\nx2\nx3\n", compile(src));
+        // this, n, and one slot shared by a and b
+        assertEquals(3, methods(src).get("f")[0]);
+    }
 
+    @Test
+    void largeProgramsAreSplitIntoMethods() {
+        // a single execute method for this would be past the JVM's 64k limit
+        String src = new WorkloadGenerator().functionCount(300).generate();
+        assertEquals(executeProgram(src), compile(src));
+        // and every method stays small enough for the JIT to compile it
+        Map<String, int[]> methods = methods(src);
+        assertTrue(methods.containsKey("execute$1"), methods.keySet().toString());
+        for (Map.Entry<String, int[]> method : methods.entrySet()) {
+            assertTrue(method.getValue()[1] <= 8000, method.getKey() + " is " + method.getValue()[1] + " bytes");
+        }
+    }
+
+    // each method of the generated class, to its max locals and its code length in bytes.  The
+    // class is copied through a ClassWriter sharing the reader's constant pool, so instructions
+    // keep their encoding, and a label visited after the last instruction ends up at the length
+    private Map<String, int[]> methods(String src) {
+        byte[] classBytes = new ByteCodeGenerator(parseVerified(src)).compileToClassFile("catscript.Methods");
+        Map<String, int[]> methods = new HashMap<>();
+        ClassReader reader = new ClassReader(classBytes);
+        reader.accept(new ClassVisitor(Opcodes.ASM9, new ClassWriter(reader, 0)) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9, super.visitMethod(access, name, descriptor, signature, exceptions)) {
+                    private final Label end = new Label();
+
+                    @Override
+                    public void visitMaxs(int maxStack, int maxLocals) {
+                        super.visitLabel(end);
+                        methods.put(name, new int[]{maxLocals, end.getOffset()});
+                        super.visitMaxs(maxStack, maxLocals);
+                    }
+                };
+            }
+        }, 0);
+        return methods;
+    }
 }
@@ -0,0 +1,48 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClassUnloadingTest extends CatscriptTestBase {
+
+    @Test
+    void programsGetTheirOwnClassLoader() {
+        CatScriptProgram first = compileProgram("print(1)");
+        CatScriptProgram second = compileProgram("print(1)");
+        assertNotSame(first.getClass().getClassLoader(), second.getClass().getClassLoader());
+    }
+
+    // soak: once a compiled program is dropped, its class and loader are collectible
+    @Test
+    void compiledClassesAreUnloaded() throws InterruptedException {
+        List<WeakReference<Class<?>>> classes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            CatScriptProgram program = compileProgram("var x = " + i + "\nprint(x)");
+            program.execute();
+            assertEquals(i + "\n", program.getOutput());
+            classes.add(new WeakReference<>(program.getClass()));
+        }
+        for (int attempt = 0; attempt < 20 && countLive(classes) > 0; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertTrue(countLive(classes) == 0, countLive(classes) + " of 200 program classes are still loaded");
+    }
+
+    private static long countLive(List<WeakReference<Class<?>>> classes) {
+        return classes.stream().filter(reference -> reference.get() != null).count();
+    }
+
+    private CatScriptProgram compileProgram(String src) {
+        return new ByteCodeGenerator(parseVerified(src)).compileToBytecode();
+    }
+}
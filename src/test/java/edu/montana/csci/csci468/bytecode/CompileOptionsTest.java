@@ -0,0 +1,44 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompileOptionsTest extends CatscriptTestBase {
+
+    private static final String SRC = "function twice(n : int) : int { return n * 2 }\n" +
+            "for (i in [1, 2]) { print(twice(i)) }";
+
+    @Test
+    void productionKeepsNoDisassembly() {
+        ByteCodeGenerator generator = new ByteCodeGenerator(parseVerified(SRC));
+        assertEquals("2\n4\n", run(generator));
+        assertNull(generator.getDisassembly());
+    }
+
+    @Test
+    void verifyModeChecksTheGeneratedClass() {
+        ByteCodeGenerator generator = new ByteCodeGenerator(parseVerified(SRC), CompileOptions.VERIFY);
+        assertEquals("2\n4\n", run(generator));
+        assertNull(generator.getDisassembly());
+    }
+
+    @Test
+    void debugModeDisassembles() {
+        ByteCodeGenerator generator = new ByteCodeGenerator(parseVerified(SRC), CompileOptions.DEBUG);
+        assertEquals("2\n4\n", run(generator));
+        String disassembly = generator.getDisassembly();
+        assertTrue(disassembly.contains("public twice(I)I"), disassembly);
+        assertTrue(disassembly.contains("private execute$0()V"), disassembly);
+    }
+
+    private static String run(ByteCodeGenerator generator) {
+        CatScriptProgram compiled = generator.compileToBytecode();
+        compiled.execute();
+        return compiled.getOutput();
+    }
+}
@@ -0,0 +1,86 @@
+package edu.montana.csci.csci468.bytecode;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.eval.ExecutionLimitException;
+import edu.montana.csci.csci468.eval.ExecutionLimits;
+import edu.montana.csci.csci468.parser.ParseErrorException;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CompiledProgramCacheTest extends CatscriptTestBase {
+
+    private static final String SRC = "var x = 1\nprint(x + 1)\n";
+
+    @Test
+    void repeatedSourceReusesTheCompiledClass() {
+        CompiledProgramCache cache = new CompiledProgramCache(4);
+        CatScriptProgram first = cache.instantiate(SRC, null);
+        CatScriptProgram second = cache.instantiate("\r\n" + SRC.replace("\n", "  \r\n"), null);
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+        first.execute();
+        second.execute();
+        assertEquals("2\n", first.getOutput());
+        assertEquals("2\n", second.getOutput());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void programsWithLimitsAreCachedApart() {
+        CompiledProgramCache cache = new CompiledProgramCache(4);
+        String loop = "for (i in [1, 2, 3]) { print(i) }";
+        cache.instantiate(loop, null).execute();
+        CatScriptProgram limited = cache.instantiate(loop, new ExecutionLimits().maxSteps(2));
+        assertThrows(ExecutionLimitException.class, limited::execute);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedProgramsAreEvicted() {
+        CompiledProgramCache cache = new CompiledProgramCache(2);
+        Class<?> one = cache.instantiate("print(1)", null).getClass();
+        cache.instantiate("print(2)", null);
+        cache.instantiate("print(1)", null);
+        cache.instantiate("print(3)", null);
+        assertEquals(2, cache.size());
+        assertSame(one, cache.instantiate("print(1)", null).getClass());
+        assertEquals(3, cache.getMisses());
+        cache.instantiate("print(2)", null);
+        assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    void invalidSourceIsNotCached() {
+        CompiledProgramCache cache = new CompiledProgramCache(2);
+        assertThrows(ParseErrorException.class, () -> cache.instantiate("print(y)", null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void normalizationOnlyIgnoresWhitespaceBetweenTokens() {
+        assertEquals(CompiledProgramCache.keyFor("print(1)\n"), CompiledProgramCache.keyFor("\n\nprint(1)   \r\n// done\n"));
+        assertEquals(CompiledProgramCache.keyFor("var x = 1 print(x)"), CompiledProgramCache.keyFor("var   x\t= 1 // one\nprint(x)"));
+        assertNotEquals(CompiledProgramCache.keyFor("print(\"a \")"), CompiledProgramCache.keyFor("print(\"a\")"));
+        assertNotEquals(CompiledProgramCache.keyFor("print(\"\\\" // x\")"), CompiledProgramCache.keyFor("print(\"\\\" // y\")"));
+    }
+
+    @Test
+    void multiLineStringsAreNotNormalized() {
+        CompiledProgramCache cache = new CompiledProgramCache(4);
+        CatScriptProgram padded = cache.instantiate("print(\"a   \nb\")", null);
+        CatScriptProgram plain = cache.instantiate("print(\"a\nb\")", null);
+        padded.execute();
+        plain.execute();
+        assertEquals("a   \nb\n", padded.getOutput());
+        assertEquals("a\nb\n", plain.getOutput());
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.size());
+    }
+}
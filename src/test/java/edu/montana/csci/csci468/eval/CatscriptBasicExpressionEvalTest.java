@@ -78,4 +78,12 @@ public class CatscriptBasicExpressionEvalTest extends CatscriptTestBase {
         assertEquals(1, evaluateExpression("(1)"));
     }
 
+    @Test
+    void intExpressionsEvaluateWithoutBoxing() {
+        assertEquals(true, evaluateExpression("1000 == 999 + 1"));
+        assertEquals(false, evaluateExpression("1000 != 10 * 100"));
+        assertEquals(-7, evaluateExpression("-(1 + 2 * 3)"));
+        assertEquals(true, evaluateExpression("not (1000 < -(2 - 1))"));
+    }
+
 }
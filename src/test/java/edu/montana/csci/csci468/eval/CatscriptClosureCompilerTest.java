@@ -0,0 +1,67 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CatscriptClosureCompilerTest extends CatscriptTestBase {
+
+    @Test
+    void expressionsCompileToClosures() {
+        assertEquals("7\n", executeClosures("1 + 2 * 3"));
+        assertEquals("-1\n", executeClosures("(1 - 4) / 3"));
+        assertEquals("ab1\n", executeClosures("\"a\" + \"b\" + 1"));
+        assertEquals("true\n", executeClosures("not (1 > 2)"));
+        assertEquals("true\n", executeClosures("2 >= 2"));
+        assertEquals("false\n", executeClosures("null != null"));
+        assertEquals("[1, 2, 3]\n", executeClosures("[1, 2, 3]"));
+    }
+
+    @Test
+    void statementsCompileToClosures() {
+        String src = "var g = 5\n" +
+                "function fib(n : int) : int {\n" +
+                "  if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) }\n" +
+                "}\n" +
+                "function find(n : int) : string {\n" +
+                "  for (x in [1, 2, 3, 4, 5]) {\n" +
+                "    if (x == n) { return \"found \" + x }\n" +
+                "  }\n" +
+                "  return \"missing\"\n" +
+                "}\n" +
+                "function show(s : string) { print(s) }\n" +
+                "print(fib(15))\n" +
+                "print(find(3))\n" +
+                "print(find(9))\n" +
+                "for (a in [1, 2]) { var x = a * 10\n print(x + g) }\n" +
+                "show(\"done\")";
+        assertEquals("610\nfound 3\nmissing\n15\n25\ndone\n", executeClosures(src));
+        assertEquals(executeProgram(src), executeClosures(src));
+    }
+
+    // choosing an execution mode must not change what a program prints
+    @Test
+    void equalityMatchesEveryExecutionMode() {
+        String src = "var s = \"ab\"\n" +
+                "var l = [1]\n" +
+                "print(\"a\" + \"b\" == \"ab\")\n" +
+                "print([1] == [1])\n" +
+                "print(s == \"a\" + \"b\")\n" +
+                "print(s == s)\n" +
+                "print(l != l)\n" +
+                "print(1 + 1 == 2)\n" +
+                "print(true != false)\n" +
+                "print(null == null)\n";
+        String expected = "false\nfalse\nfalse\ntrue\nfalse\ntrue\ntrue\ntrue\n";
+        assertEquals(expected, executeProgram(src));
+        assertEquals(expected, executeClosures(src));
+        assertEquals(expected, executeRegisters(src));
+        assertEquals(expected, compile(src));
+    }
+
+    @Test
+    void generatedWorkloadsMatchTheTreeWalker() {
+        assertWorkloadMatchesTreeWalker(this::executeClosures);
+    }
+}
@@ -102,6 +102,22 @@ public class CatscriptFunctionArgsAndReturnEvalTest extends CatscriptTestBase
                 "print(foo())"));
     }
 
+    @Test
+    void callsNestedInArgumentsWorkProperly() {
+        assertEquals("8\n", executeProgram("function add(x : int, y : int) : int { return x + y }" +
+                "print(add(add(1, 2), add(add(1, 1), 3)))"));
+    }
 
+    @Test
+    void returnInsideLoopStopsTheFunction() {
+        assertEquals("1\n2\n3\nfound\n", executeProgram("function find(n : int) : string {\n" +
+                "  for (x in [1, 2, 3, 4, 5]) {\n" +
+                "    print(x)\n" +
+                "    if (x == n) { return \"found\" }\n" +
+                "  }\n" +
+                "  return \"missing\"\n" +
+                "}\n" +
+                "print(find(3))"));
+    }
 
 }
@@ -1,8 +1,11 @@
 package edu.montana.csci.csci468.eval;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.CatScriptParser;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -93,5 +96,77 @@ public class CatscriptStatementExecutionTest extends CatscriptTestBase {
         ));
     }
 
+    @Test
+    void programsCanBeParsedFromAReader() {
+        CatScriptProgram program = new CatScriptParser().parse(new StringReader(
+                "function foo(x : int) : int {\n" +
+                        "return x + 1" +
+                "}\n" +
+                "print(foo(9))"
+        ));
+        program.verify();
+        program.execute();
+        assertEquals("10\n", program.getOutput());
+    }
+
+    @Test
+    void recursiveCallsGetTheirOwnFrames() {
+        assertEquals("55\n", executeProgram(
+                "function fib(n : int) : int {\n" +
+                        "  if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) }\n" +
+                "}\n" +
+                "print(fib(10))"
+        ));
+    }
+
+    @Test
+    void blockScopedVariablesShareSlots() {
+        assertEquals("15\n25\n8\n6\n", executeProgram(
+                "var g = 5\n" +
+                "for (a in [1, 2]) { var x = a * 10\n print(x + g) }\n" +
+                "for (b in [3]) { var y = b\n" +
+                "  if (y > 1) { var z = y + g\n print(z) } else { var w = 0\n print(w) } }\n" +
+                "function f(p : int) : int { var q = p + g\n return q }\n" +
+                "print(f(1))"
+        ));
+    }
+
+    @Test
+    void equalityFallsBackWhenOperandTypesChange() {
+        assertEquals("true\ntrue\nfalse\ntrue\nfalse\n", executeProgram(
+                "function same(a, b) { print(a == b) }\n" +
+                "same(1000, 1000)\n" +
+                "same(true, true)\n" +
+                "same(1000, 999)\n" +
+                "same(null, null)\n" +
+                "same(1, true)"
+        ));
+    }
+
+    @Test
+    void assignmentsMatchEveryExecutionMode() {
+        String src = "var g = 1\n" +
+                "var o : object = true\n" +
+                "function bump(n : int) : int {\n" +
+                "  var x = n\n" +
+                "  x = x + 1\n" +
+                "  g = g + x\n" +
+                "  o = x\n" +
+                "  return x\n" +
+                "}\n" +
+                "print(bump(1))\n" +
+                "print(g)\n" +
+                "print(o)\n" +
+                "g = 10\n" +
+                "o = \"s\"\n" +
+                "print(g + 1)\n" +
+                "print(o)\n" +
+                "for (i in [1, 2]) { var y = 0\n y = i * 2\n print(y) }";
+        String expected = "2\n3\n2\n11\ns\n2\n4\n";
+        assertEquals(expected, executeProgram(src));
+        assertEquals(expected, executeClosures(src));
+        assertEquals(expected, executeRegisters(src));
+        assertEquals(expected, compile(src));
+    }
 
 }
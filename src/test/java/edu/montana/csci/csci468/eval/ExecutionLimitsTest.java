@@ -0,0 +1,101 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecutionLimitsTest extends CatscriptTestBase {
+
+    private static final String RECURSION = "function down(n : int) : int {\n" +
+            "  if (n < 1) { return 0 } else { return down(n - 1) }\n" +
+            "}\n" +
+            "print(down(50))";
+
+    private static final String LOOPS = "var l = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]\n" +
+            "for (a in l) { for (b in l) { for (c in l) { for (d in l) { for (e in l) { var x = a } } } } }\n" +
+            "print(\"done\")";
+
+    @Test
+    void programsWithinTheirLimitsRun() {
+        ExecutionLimits limits = new ExecutionLimits().maxSteps(100).maxCallDepth(51).maxListElements(10);
+        assertEquals("0\n", run(RECURSION, limits, false));
+        assertEquals(51, limits.getSteps());
+        assertEquals("0\n", run(RECURSION, new ExecutionLimits().maxCallDepth(51), true));
+    }
+
+    // calls into promoted functions count once, so the counts don't depend on when they tier up
+    @Test
+    void tieringDoesNotChangeTheCounts() {
+        for (int threshold : new int[]{1, 10, 1000}) {
+            CatScriptProgram program = parseVerified(RECURSION);
+            ExecutionLimits limits = new ExecutionLimits().maxSteps(51).maxCallDepth(51);
+            program.setLimits(limits);
+            TieredEngine engine = new TieredEngine(program, threshold);
+            engine.execute();
+            assertEquals("0\n", program.getOutput());
+            assertEquals(51, limits.getSteps());
+            assertEquals(threshold < 51, engine.isCompiled(program.getFunction("down")));
+        }
+    }
+
+    @Test
+    void callsExitOnExceptions() {
+        String src = "function divide(n : int) : int { return 10 / n }\n" +
+                "print(divide(0))";
+        for (boolean compiled : new boolean[]{false, true}) {
+            ExecutionLimits limits = new ExecutionLimits();
+            assertThrows(ArithmeticException.class, () -> run(src, limits, compiled));
+            assertEquals(0, limits.getCallDepth());
+        }
+    }
+
+    @Test
+    void callDepthIsLimited() {
+        assertLimited("call depth of 50", RECURSION, new ExecutionLimits().maxCallDepth(50));
+    }
+
+    @Test
+    void stepsAreLimited() {
+        assertLimited("1000 steps", LOOPS, new ExecutionLimits().maxSteps(1000));
+        assertLimited("40 steps", RECURSION, new ExecutionLimits().maxSteps(40));
+    }
+
+    @Test
+    void timeIsLimited() {
+        // ten million iterations, stopped long before they finish
+        String src = "var l = [1, 2, 3, 4, 5, 6, 7, 8, 9, 10]\n" +
+                "for (a in l) { for (b in l) { for (c in l) { for (d in l) {\n" +
+                "  for (e in l) { for (f in l) { for (g in l) { var x = a } } }\n" +
+                "} } } }";
+        assertLimited("time limit of 1ms", src, new ExecutionLimits().timeout(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void listElementsAreLimited() {
+        assertLimited("9 list elements", LOOPS, new ExecutionLimits().maxListElements(9));
+    }
+
+    private void assertLimited(String message, String src, ExecutionLimits limits) {
+        for (boolean compiled : new boolean[]{false, true}) {
+            ExecutionLimitException exception = assertThrows(ExecutionLimitException.class, () -> run(src, limits, compiled));
+            assertTrue(exception.getMessage().contains(message), exception.getMessage());
+        }
+    }
+
+    private String run(String src, ExecutionLimits limits, boolean compiled) {
+        CatScriptProgram program = parseVerified(src);
+        program.setLimits(limits);
+        if (compiled) {
+            program = new ByteCodeGenerator(program).compileToBytecode();
+        }
+        program.execute();
+        return program.getOutput();
+    }
+}
@@ -0,0 +1,88 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.bytecode.ByteCodeGenerator;
+import edu.montana.csci.csci468.bytecode.CompileOptions;
+import edu.montana.csci.csci468.parser.expressions.FunctionCallExpression;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import edu.montana.csci.csci468.parser.statements.ForStatement;
+import edu.montana.csci.csci468.parser.statements.FunctionDefinitionStatement;
+import edu.montana.csci.csci468.parser.statements.IfStatement;
+import edu.montana.csci.csci468.parser.statements.PrintStatement;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProfilerTest extends CatscriptTestBase {
+
+    private static final String SRC = "function fib(n : int) : int {\n" +
+            "  if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) }\n" +
+            "}\n" +
+            "for (i in [1, 2, 3]) {\n" +
+            "  print(fib(i))\n" +
+            "}\n";
+
+    @Test
+    void interpreterIsProfiled() {
+        CatScriptProgram program = parseVerified(SRC);
+        Profiler profiler = new Profiler();
+        program.setProfiler(profiler);
+        program.execute();
+        assertEquals("1\n1\n2\n", program.getOutput());
+        assertProfile(program, profiler);
+    }
+
+    @Test
+    void compiledCodeIsProfiled() {
+        CatScriptProgram program = parseVerified(SRC);
+        Profiler profiler = new Profiler();
+        program.setProfiler(profiler);
+        CatScriptProgram compiled = new ByteCodeGenerator(program).compileToBytecode();
+        compiled.execute();
+        assertEquals("1\n1\n2\n", compiled.getOutput());
+        assertProfile(program, profiler);
+    }
+
+    @Test
+    void compiledFunctionsExitOnExceptions() {
+        CatScriptProgram program = parseVerified("function divide(n : int) : int { return 10 / n }\n" +
+                "print(divide(0))");
+        Profiler profiler = new Profiler();
+        program.setProfiler(profiler);
+        CatScriptProgram compiled = new ByteCodeGenerator(program, CompileOptions.VERIFY).compileToBytecode();
+        assertThrows(ArithmeticException.class, compiled::execute);
+        String stacks = profiler.toCollapsedStacks();
+        assertTrue(stacks.startsWith("main;divide "), stacks);
+    }
+
+    @Test
+    void profilesExport() {
+        CatScriptProgram program = parseVerified(SRC);
+        Profiler profiler = new Profiler();
+        program.setProfiler(profiler);
+        program.execute();
+        String json = profiler.toJson();
+        assertTrue(json.contains("{\"name\": \"fib\", \"line\": 1, \"invocations\": 9, \"nanos\": "), json);
+        assertTrue(json.contains("{\"variable\": \"i\", \"line\": 4, \"iterations\": 3}"), json);
+        assertTrue(json.contains("{\"line\": 2, \"taken\": 6, \"notTaken\": 3}"), json);
+        String stacks = profiler.toCollapsedStacks();
+        assertTrue(stacks.startsWith("main;fib "), stacks);
+        assertTrue(stacks.contains("\nmain;fib;fib "), stacks);
+    }
+
+    // fib(1) + fib(2) + fib(3) is 1 + 3 + 5 calls, three of them from the loop's call site
+    private void assertProfile(CatScriptProgram program, Profiler profiler) {
+        FunctionDefinitionStatement fib = program.getFunction("fib");
+        ForStatement loop = (ForStatement) program.getStatements().get(1);
+        IfStatement ifStatement = (IfStatement) fib.getBody().get(0);
+        FunctionCallExpression callSite = (FunctionCallExpression) ((PrintStatement) loop.getBody().get(0)).getExpression();
+        assertEquals(9, profiler.getCount(fib));
+        assertEquals(3, profiler.getCount(callSite));
+        assertEquals(3, profiler.getCount(loop));
+        assertEquals(6, profiler.getCount(ifStatement));
+        assertEquals(3, profiler.getNotTaken(ifStatement));
+        assertTrue(profiler.getNanos(fib) > 0);
+    }
+}
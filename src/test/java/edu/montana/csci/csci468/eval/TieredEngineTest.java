@@ -0,0 +1,61 @@
+package edu.montana.csci.csci468.eval;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.parser.statements.CatScriptProgram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TieredEngineTest extends CatscriptTestBase {
+
+    private static final String HOT = "function fib(n : int) : int {\n" +
+            "  if (n < 2) { return n } else { return add(fib(n - 1), fib(n - 2)) }\n" +
+            "}\n" +
+            "function add(a : int, b : int) : int { return a + b }\n" +
+            "function same(a : int, b : object, flag : bool) : bool { return (a == b) == flag }\n" +
+            "function label(s : string, n : int) : string { return s + n }\n" +
+            "function loop(l : list<int>) {\n" +
+            "  for (x in l) { if (x == 4) { print(label(\"four \", x)) } }\n" +
+            "}\n" +
+            "print(fib(12))\n" +
+            "for (i in [1, 2, 3, 4, 5]) { print(same(i * 100, 300, true)) }\n" +
+            "for (i in [1, 2, 3]) { loop([1, 2, 3, 4]) }\n" +
+            "print(label(\"n\", fib(5)))";
+
+    @Test
+    void hotFunctionsArePromotedToBytecode() {
+        CatScriptProgram program = parseVerified(HOT);
+        TieredEngine engine = new TieredEngine(program, 3);
+        engine.execute();
+        assertEquals(executeProgram(HOT), program.getOutput());
+        assertTrue(engine.isCompiled(program.getFunction("fib")));
+        assertTrue(engine.isCompiled(program.getFunction("add")));
+        assertTrue(engine.isCompiled(program.getFunction("same")));
+        assertTrue(engine.isCompiled(program.getFunction("loop")));
+    }
+
+    @Test
+    void coldFunctionsStayInterpreted() {
+        CatScriptProgram program = parseVerified(HOT);
+        TieredEngine engine = new TieredEngine(program);
+        engine.execute();
+        assertEquals(executeProgram(HOT), program.getOutput());
+        assertFalse(engine.isCompiled(program.getFunction("label")));
+    }
+
+    @Test
+    void functionsReadingGlobalsStayInterpreted() {
+        String src = "var offset = 10\n" +
+                "function shift(n : int) : int { return n + offset }\n" +
+                "function twice(n : int) : int { return shift(shift(n)) }\n" +
+                "for (i in [1, 2, 3, 4, 5]) { print(twice(i)) }";
+        CatScriptProgram program = parseVerified(src);
+        TieredEngine engine = new TieredEngine(program, 2);
+        engine.execute();
+        assertEquals(executeProgram(src), program.getOutput());
+        assertFalse(engine.isCompiled(program.getFunction("shift")));
+        assertFalse(engine.isCompiled(program.getFunction("twice")));
+    }
+}
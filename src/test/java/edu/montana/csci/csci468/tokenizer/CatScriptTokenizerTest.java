@@ -1,9 +1,17 @@
 package edu.montana.csci.csci468.tokenizer;
 
 import edu.montana.csci.csci468.CatscriptTestBase;
+import edu.montana.csci.csci468.util.WorkloadGenerator;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static edu.montana.csci.csci468.tokenizer.TokenType.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -146,5 +154,195 @@ public class CatScriptTokenizerTest extends CatscriptTestBase {
                 VAR, IDENTIFIER, EQUAL, INTEGER, EOF);
     }
 
+    @Test
+    public void charArraySourcesTokenizeLikeStrings() {
+        String src = "var x = [1, \"two\"] // comment\nprint(x)";
+        TokenBuffer fromString = new CatScriptTokenizer(src).getTokenBuffer();
+        TokenBuffer fromChars = new CatScriptTokenizer(src.toCharArray()).getTokenBuffer();
+        assertSameTokens(fromString, fromChars);
+    }
+
+    @Test
+    public void tokenBufferMaterializesValues() {
+        TokenBuffer buffer = new CatScriptTokenizer("foo \"bar\" 42 $").getTokenBuffer();
+        assertEquals(5, buffer.size());
+        assertEquals(IDENTIFIER, buffer.getType(0));
+        assertEquals("foo", buffer.getStringValue(0));
+        assertEquals("bar", buffer.getStringValue(1));
+        assertEquals("42", buffer.getStringValue(2));
+        assertEquals("<Unexpected Token: [$]>", buffer.getStringValue(3));
+        assertEquals("<EOF>", buffer.getStringValue(4));
+    }
+
+    @Test
+    public void tokenListWalksTheBufferColumns() {
+        TokenList tokens = getTokenList("var x : int = 1");
+        assertTrue(tokens.matchAndConsume(VAR));
+        assertTrue(tokens.match(IDENTIFIER));
+        assertTrue(tokens.match("x"));
+        assertFalse(tokens.match("xy"));
+        Token x = tokens.consumeToken();
+        assertEquals(x, tokens.lastToken());
+        assertTrue(tokens.matchAndConsume(COLON));
+        assertTrue(tokens.match("int"));
+        assertTrue(tokens.match(STRING, IDENTIFIER));
+        assertEquals(7, tokens.size());
+    }
+
+    @Test
+    public void keywordTrieMatchesKeywordTable() {
+        for (String keyword : KEYWORDS.keySet()) {
+            assertEquals(KEYWORDS.get(keyword), NameTable.keywordFor(keyword, 0, keyword.length()));
+            assertNull(NameTable.keywordFor(keyword + "x", 0, keyword.length() + 1));
+            assertNull(NameTable.keywordFor(keyword, 0, keyword.length() - 1));
+        }
+        assertNull(NameTable.keywordFor("Var", 0, 3));
+        assertNull(NameTable.keywordFor("_if", 0, 3));
+    }
+
+    @Test
+    public void identifiersAreInterned() {
+        List<Token> tokens = getTokensAsList("foo bar foo(foo)");
+        assertSame(tokens.get(0).getStringValue(), tokens.get(2).getStringValue());
+        assertSame(tokens.get(0).getStringValue(), tokens.get(4).getStringValue());
+        assertNotSame(tokens.get(0).getStringValue(), tokens.get(1).getStringValue());
+        assertEquals(2, getTokenList("foo bar foo").getBuffer().getNames().size());
+    }
+
+    @Test
+    public void streamingTokenizerMatchesEagerTokenizer() {
+        String src = "// a comment that is longer than the window\n" +
+                "var longIdentifierName = \"a string literal that is longer than the window\"\n" +
+                "function foo(x : int) : int { return x * 2 }\n" +
+                "print(foo(21)) $ \"unterminated";
+        TokenBuffer eager = new CatScriptTokenizer(src).getTokenBuffer();
+        TokenList streamed = new CatScriptTokenizer(new StringReader(src), 4).getTokens();
+        List<Token> tokens = streamed.stream().collect(Collectors.toList());
+        assertSameTokens(eager, streamed.getBuffer());
+        assertNull(tokens.get(0).getLineContent());
+    }
+
+    @Test
+    public void streamingTokenizerScansOnDemand() {
+        CatScriptTokenizer tokenizer = new CatScriptTokenizer(new StringReader("print(1)\nprint(2)"));
+        TokenList tokens = tokenizer.getTokens();
+        assertEquals(0, tokenizer.getTokenBuffer().size());
+        assertTrue(tokens.matchAndConsume(PRINT));
+        assertTrue(tokens.match(LEFT_PAREN));
+        assertEquals(2, tokenizer.getTokenBuffer().size());
+        assertEquals(9, tokens.size());
+    }
+
+    @Test
+    public void mappedFilesTokenizeLikeStrings() throws IOException {
+        String ascii = "var x = \"hello\"\nprint(x + 1)";
+        String utf8 = "var x = \"h\u00e9llo\"\nprint(x + 1)";
+        for (String src : List.of(ascii, utf8)) {
+            Path file = Files.createTempFile("mapped", ".cat");
+            try {
+                Files.writeString(file, src);
+                TokenBuffer expected = new CatScriptTokenizer(src).getTokenBuffer();
+                TokenBuffer mapped = new CatScriptTokenizer(MappedSource.map(file)).getTokenBuffer();
+                assertSameTokens(expected, mapped);
+                assertEquals(src, MappedSource.map(file).toString());
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void lineIndexFindsLinesAndColumns() {
+        String src = "var x = 1\n\n  print(x)\r\nprint(2)";
+        LineIndex lineIndex = new CatScriptTokenizer(src).getTokenBuffer().getLineIndex();
+        String[] lines = src.split("\n");
+        assertEquals(lines.length, lineIndex.getLineCount());
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(lines[i], lineIndex.getLineContent(i + 1));
+        }
+        assertEquals(1, lineIndex.getLine(0));
+        assertEquals(2, lineIndex.getLine(10));
+        assertEquals(3, lineIndex.getLine(13));
+        assertEquals(2, lineIndex.getColumn(13));
+        assertEquals(4, lineIndex.getLine(src.length()));
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        assertEquals("  print(x)\r", tokens.stream().filter(t -> t.getLine() == 3).findFirst().get().getLineContent());
+    }
+
+    @Test
+    public void parallelTokenizerMatchesSequentialTokenizer() {
+        StringBuilder src = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            src.append("// comment ").append(i).append(" with a \" quote\n");
+            src.append("var s").append(i).append(" = \"a string\n// spanning \\\" lines\"\n");
+            src.append("print(s").append(i).append(" + ").append(i).append(") $\n\n");
+        }
+        src.append("print(\"unterminated\n");
+        TokenBuffer sequential = new CatScriptTokenizer(src).getTokenBuffer();
+        TokenBuffer parallel = new CatScriptTokenizer(src, ForkJoinPool.commonPool(), 100).getTokenBuffer();
+        assertSameTokens(sequential, parallel);
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.getSymbol(i), parallel.getSymbol(i));
+        }
+    }
+
+    @Test
+    public void retokenizingAnEditMatchesAFullTokenize() {
+        String[] snippets = {"x", "1", " ", "\n", "\"", "//", "=", "!", "(", "var y = 2\n", "\\", "$"};
+        String src = "var x = 10\n// a comment\nprint(\"a \\\" string\")\nfunction foo(a : int) { return a + 1 }\nprint(foo(x))\n";
+        assertRetokenizesLikeAFullTokenize(src, snippets, 4, 500);
+    }
+
+    @Test
+    public void retokenizingLargeSourcesMatchesAFullTokenize() {
+        // big inserts and removals grow the buffer and move its gap across many rows
+        String block = new WorkloadGenerator().functionCount(2).generate();
+        String[] snippets = {"x", "\n", "\"", "//", "(", block};
+        String src = new WorkloadGenerator().functionCount(10).generate();
+        assertRetokenizesLikeAFullTokenize(src, snippets, 400, 200);
+    }
+
+    @Test
+    public void retokenizingKeepsTheNameTableBounded() {
+        String src = "var name = 1\nprint(name)\n";
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        for (int i = 0; i < 20000; i++) {
+            // retype the first name, interning a fresh one each time
+            String previous = tokens.getBuffer().getStringValue(1);
+            tokens = CatScriptTokenizer.retokenize(tokens, 4, previous.length(), "name" + i);
+        }
+        assertEquals("name19999", tokens.getBuffer().getStringValue(1));
+        assertTrue(tokens.getBuffer().getNames().size() < 2100, tokens.getBuffer().getNames().size() + " names");
+    }
+
+    private static void assertRetokenizesLikeAFullTokenize(String src, String[] snippets, int maxRemoved, int edits) {
+        TokenList tokens = new CatScriptTokenizer(src).getTokens();
+        Random random = new Random(468);
+        for (int i = 0; i < edits; i++) {
+            int offset = random.nextInt(src.length() + 1);
+            int removed = random.nextInt(Math.min(maxRemoved, src.length() - offset) + 1);
+            String inserted = random.nextInt(3) == 0 ? "" : snippets[random.nextInt(snippets.length)];
+            src = src.substring(0, offset) + inserted + src.substring(offset + removed);
+            tokens = CatScriptTokenizer.retokenize(tokens, offset, removed, inserted);
+            TokenBuffer expected = new CatScriptTokenizer(src).getTokenBuffer();
+            TokenBuffer actual = tokens.getBuffer();
+            assertEquals(src, actual.getSource().toString());
+            assertSameTokens(expected, actual);
+            int last = expected.size() - 1;
+            assertEquals(expected.getToken(last).getLineContent(), actual.getToken(last).getLineContent());
+        }
+    }
+
+    private static void assertSameTokens(TokenBuffer expected, TokenBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getType(i), actual.getType(i), "type of token " + i);
+            assertEquals(expected.getStringValue(i), actual.getStringValue(i), "value of token " + i);
+            assertEquals(expected.getStart(i), actual.getStart(i), "start of token " + i);
+            assertEquals(expected.getEnd(i), actual.getEnd(i), "end of token " + i);
+            assertEquals(expected.getLine(i), actual.getLine(i), "line of token " + i);
+            assertEquals(expected.getLineOffset(i), actual.getLineOffset(i), "line offset of token " + i);
+        }
+    }
 
 }
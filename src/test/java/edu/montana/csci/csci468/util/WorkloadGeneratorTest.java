@@ -0,0 +1,42 @@
+package edu.montana.csci.csci468.util;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WorkloadGeneratorTest extends CatscriptTestBase {
+
+    @Test
+    void generatedProgramsRunTheSameInBothBackends() {
+        for (int depth = 0; depth <= 4; depth++) {
+            String src = new WorkloadGenerator()
+                    .functionCount(3)
+                    .nestingDepth(depth)
+                    .listSize(4)
+                    .loopTrips(3)
+                    .recursionDepth(5)
+                    .generate();
+            assertEquals(executeProgram(src), compile(src));
+        }
+    }
+
+    @Test
+    void knobsShapeTheProgram() {
+        String src = new WorkloadGenerator()
+                .functionCount(1)
+                .nestingDepth(2)
+                .listSize(2)
+                .loopTrips(4)
+                .recursionDepth(3)
+                .generate();
+        assertEquals("fn0:321\n" +
+                "[0, 1]\n" +
+                "unit 0: 0\n" +
+                "unit 0: 1\n" +
+                "5\n" +
+                "7\n", executeProgram(src));
+        assertEquals(src, new WorkloadGenerator().functionCount(1).nestingDepth(2).listSize(2)
+                .loopTrips(4).recursionDepth(3).generate());
+    }
+}
@@ -0,0 +1,54 @@
+package edu.montana.csci.csci468.vm;
+
+import edu.montana.csci.csci468.CatscriptTestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RegisterVMTest extends CatscriptTestBase {
+
+    @Test
+    void expressionsRunOnTheRegisterVM() {
+        assertEquals("7\n", executeRegisters("1 + 2 * 3"));
+        assertEquals("-1\n", executeRegisters("(1 - 4) / 3"));
+        assertEquals("ab1\n", executeRegisters("\"a\" + \"b\" + 1"));
+        assertEquals("true\n", executeRegisters("not (1 > 2)"));
+        assertEquals("true\n", executeRegisters("2 >= 2"));
+        assertEquals("false\n", executeRegisters("null != null"));
+        assertEquals("true\n", executeRegisters("true == (1 < 2)"));
+        assertEquals("true\n", executeRegisters("true != 1"));
+        assertEquals("[1, 2, 3]\n", executeRegisters("[1, 2, 3]"));
+        assertEquals("[true, null, a]\n", executeRegisters("[true, null, \"a\"]"));
+    }
+
+    @Test
+    void statementsRunOnTheRegisterVM() {
+        String src = "var g = 5\n" +
+                "var flag = true\n" +
+                "function fib(n : int) : int {\n" +
+                "  if (n < 2) { return n } else { return fib(n - 1) + fib(n - 2) }\n" +
+                "}\n" +
+                "function find(n : int) : string {\n" +
+                "  for (x in [1, 2, 3, 4, 5]) {\n" +
+                "    if (x == n) { return \"found \" + x }\n" +
+                "  }\n" +
+                "  return \"missing\"\n" +
+                "}\n" +
+                "function both(a : bool, o : object) : bool { return a == flag }\n" +
+                "function show(s : string) { print(s + g) }\n" +
+                "print(fib(15))\n" +
+                "print(find(3))\n" +
+                "print(find(9))\n" +
+                "print(both(false, 1))\n" +
+                "for (a in [1, 2]) { var x = a * 10\n print(x + g) }\n" +
+                "for (b in [true, false]) { if (b) { print(\"yes\") } else { print(\"no\") } }\n" +
+                "show(\"done\")";
+        assertEquals("610\nfound 3\nmissing\nfalse\n15\n25\nyes\nno\ndone5\n", executeRegisters(src));
+        assertEquals(executeProgram(src), executeRegisters(src));
+    }
+
+    @Test
+    void generatedWorkloadsMatchTheTreeWalker() {
+        assertWorkloadMatchesTreeWalker(this::executeRegisters);
+    }
+}